@@ -0,0 +1,44 @@
+package com.liimand.bettinggameserver.domain;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-bet money work of accepting and settling a bet: the former {@link BigDecimal} path against long minor units.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MoneyBenchmark {
+    private static final BigDecimal PAYOUT_MULTIPLIER = new BigDecimal("9.9");
+    private static final int SIZE = 1024;
+
+    private final BigDecimal[] decimals = new BigDecimal[SIZE];
+    private final long[] cents = new long[SIZE];
+    private int i;
+
+    @Setup
+    public void fill() {
+        for (int k = 0; k < SIZE; k++) {
+            cents[k] = 1 + (k * 37L) % 100_000;
+            decimals[k] = Money.toDecimal(cents[k]);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal amount = decimals[i++ & (SIZE - 1)];
+        if (amount.compareTo(BigDecimal.ZERO) <= 0) return null;
+        return amount.multiply(PAYOUT_MULTIPLIER).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public long minorUnits() {
+        long amount = cents[i++ & (SIZE - 1)];
+        if (amount <= 0) return -1;
+        return Money.multiplyTenths(amount, 99);
+    }
+}
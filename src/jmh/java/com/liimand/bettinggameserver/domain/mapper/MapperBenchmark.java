@@ -0,0 +1,52 @@
+package com.liimand.bettinggameserver.domain.mapper;
+
+import com.liimand.bettinggameserver.domain.RoundInfo;
+import com.liimand.bettinggameserver.domain.RoundState;
+import com.liimand.bettinggameserver.domain.Settlement;
+import com.liimand.bettinggameserver.domain.WinnerInfo;
+import com.liimand.bettinggameserver.dto.RoundDto;
+import com.liimand.bettinggameserver.dto.SettlementDto;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MapStruct conversion of the REST payloads: {@link RoundInfoMapper} per round request and
+ * {@link SettlementMapper} against the number of winners.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MapperBenchmark {
+    private final RoundInfoMapper roundInfoMapper = Mappers.getMapper(RoundInfoMapper.class);
+    private final SettlementMapper settlementMapper = Mappers.getMapper(SettlementMapper.class);
+
+    @Param({"10", "1000"})
+    public int winnerCount;
+
+    private RoundInfo round;
+    private Settlement settlement;
+
+    @Setup
+    public void setup() {
+        Instant now = Instant.now();
+        round = new RoundInfo(1, RoundState.CLOSED, now, now.plusSeconds(10), 7);
+        List<WinnerInfo> winners = new ArrayList<>(winnerCount);
+        for (int i = 0; i < winnerCount; i++) winners.add(new WinnerInfo("player-" + i, 990L * (i + 1)));
+        settlement = new Settlement(1, 7, winners);
+    }
+
+    @Benchmark
+    public RoundDto roundInfo() {
+        return roundInfoMapper.toDto(round);
+    }
+
+    @Benchmark
+    public SettlementDto settlement() {
+        return settlementMapper.toDto(settlement);
+    }
+}
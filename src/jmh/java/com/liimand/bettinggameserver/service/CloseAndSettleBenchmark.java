@@ -0,0 +1,63 @@
+package com.liimand.bettinggameserver.service;
+
+import com.liimand.bettinggameserver.domain.Bet;
+import com.liimand.bettinggameserver.domain.RoundInfo;
+import com.liimand.bettinggameserver.domain.Settlement;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One {@code closeAndSettle} of a round holding {@code betCount} bets, end to end: winner selection, losers,
+ * history, journal hand-off and event publication. Each measurement settles a freshly filled round.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+public class CloseAndSettleBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int betCount;
+
+    private Bet[] bets;
+    private ScheduledExecutorService scheduler;
+    private GameEventBus eventBus;
+    private GameTable table;
+    private long roundId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        bets = new Bet[betCount];
+        for (int i = 0; i < betCount; i++) bets[i] = new Bet("player-" + i, 1 + i % 10, 100 + i % 1_000);
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        eventBus = new GameEventBus(1, 64, GameEventBus.OverflowPolicy.DROP_OLDEST);
+        table = new GameTable("bench", new GameTable.Settings(Duration.ofHours(1), false, 0, 16, 1024),
+                new ExecutorRoundTimer(scheduler), () -> 7, eventBus, BetJournal.NOOP, GameMetrics.noop(),
+                new PlayerRegistry(1 << 20));
+    }
+
+    @Setup(Level.Invocation)
+    public void openRound() {
+        RoundInfo round = table.startNewRound();
+        roundId = round.roundId();
+        table.placeBets(Arrays.asList(bets));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        eventBus.shutdown();
+        scheduler.shutdownNow();
+    }
+
+    @Benchmark
+    public Settlement closeAndSettle() {
+        table.closeAndSettle(roundId);
+        return table.getLastSettlement();
+    }
+}
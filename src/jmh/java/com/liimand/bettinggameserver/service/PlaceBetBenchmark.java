@@ -0,0 +1,96 @@
+package com.liimand.bettinggameserver.service;
+
+import com.liimand.bettinggameserver.domain.Bet;
+import com.liimand.bettinggameserver.domain.PlaceBetResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * {@code placeBet} latency distribution (read p99 from the sample-time percentiles) with the journal off and on,
+ * under 1 to 64 contending threads. A new round is opened every {@value #BETS_PER_ROUND} bets to keep the round
+ * map at a realistic size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PlaceBetBenchmark {
+    private static final int BETS_PER_ROUND = 100_000;
+
+    @Param({"off", "on"})
+    public String journal;
+
+    private final AtomicLong seq = new AtomicLong();
+    private ScheduledExecutorService scheduler;
+    private GameEventBus eventBus;
+    private BetJournal betJournal;
+    private Path dir;
+    private GameTable table;
+
+    @Setup
+    public void setup() throws IOException {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        eventBus = new GameEventBus(1, 8192, GameEventBus.OverflowPolicy.DROP_NEWEST);
+        if ("on".equals(journal)) {
+            dir = Files.createTempDirectory("bet-journal");
+            betJournal = new MappedBetJournal(dir, 64 << 20, 5, 4096);
+        } else {
+            betJournal = BetJournal.NOOP;
+        }
+        table = new GameTable("bench", new GameTable.Settings(Duration.ofHours(1), false, 0, 16, 1024),
+                new ExecutorRoundTimer(scheduler), () -> 7, eventBus, betJournal, GameMetrics.noop(),
+                new PlayerRegistry(1 << 20));
+        table.startNewRound();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        betJournal.close();
+        eventBus.shutdown();
+        scheduler.shutdownNow();
+        if (dir != null) {
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public PlaceBetResult threads01() {
+        return placeBet();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public PlaceBetResult threads04() {
+        return placeBet();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public PlaceBetResult threads16() {
+        return placeBet();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public PlaceBetResult threads64() {
+        return placeBet();
+    }
+
+    private PlaceBetResult placeBet() {
+        long n = seq.incrementAndGet();
+        if (n % BETS_PER_ROUND == 0) table.startNewRound();
+        return table.placeBet(new Bet("player-" + n, 1 + (int) (n % 10), 1_000));
+    }
+}
@@ -0,0 +1,51 @@
+package com.liimand.bettinggameserver.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of arming and cancelling a round close, which every round start pays, with thousands of timers pending.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RoundTimerBenchmark {
+    private static final Runnable NOOP = () -> {};
+
+    @Param({"executor", "wheel"})
+    public String timer;
+
+    @Param({"1000", "100000"})
+    public int pending;
+
+    private ScheduledThreadPoolExecutor scheduler;
+    private RoundTimer roundTimer;
+
+    @Setup
+    public void setup() {
+        if ("wheel".equals(timer)) {
+            roundTimer = new HashedWheelRoundTimer(10, 512, 1);
+        } else {
+            scheduler = new ScheduledThreadPoolExecutor(1);
+            scheduler.setRemoveOnCancelPolicy(true);
+            roundTimer = new ExecutorRoundTimer(scheduler);
+        }
+        for (int i = 0; i < pending; i++) {
+            roundTimer.schedule(NOOP, 1 + i % 3_600, TimeUnit.SECONDS);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (roundTimer instanceof HashedWheelRoundTimer wheel) wheel.shutdown();
+        if (scheduler != null) scheduler.shutdownNow();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean scheduleAndCancel() {
+        return roundTimer.schedule(NOOP, 10, TimeUnit.SECONDS).cancel();
+    }
+}
@@ -0,0 +1,78 @@
+package com.liimand.bettinggameserver.service;
+
+import com.liimand.bettinggameserver.domain.Money;
+import com.liimand.bettinggameserver.domain.WinnerInfo;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settle time against bet count: {@code fullScan} is the pre-bucket settlement loop that visits every bet,
+ * {@code bucketed} is the current one that only visits the winning bucket and hands losers over in bulk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SettlementBenchmark {
+    private static final BigDecimal PAYOUT_MULTIPLIER = new BigDecimal("9.9");
+    private static final int WINNING = 7;
+
+    @Param({"1000", "10000", "100000", "200000"})
+    public int betCount;
+
+    private ConcurrentMap<String, LegacyBet> flat;
+    private PlayerRegistry players;
+    private RoundBets bucketed;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        flat = new ConcurrentHashMap<>();
+        players = new PlayerRegistry(betCount);
+        bucketed = new RoundBets(1, betCount);
+        for (int i = 0; i < betCount; i++) {
+            String nickname = "player-" + i;
+            int number = 1 + (i % 10);
+            flat.put(nickname, new LegacyBet(nickname, number, new BigDecimal(1 + (i % 50))));
+            bucketed.add(players.acquire(nickname), number, 100L * (1 + (i % 50)));
+        }
+    }
+
+    @Benchmark
+    public List<WinnerInfo> fullScan(Blackhole bh) {
+        List<WinnerInfo> winners = new ArrayList<>();
+        for (LegacyBet b : flat.values()) {
+            BigDecimal payout = BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP);
+            if (b.number() == WINNING) {
+                payout = b.amount().multiply(PAYOUT_MULTIPLIER).setScale(2, RoundingMode.HALF_UP);
+                winners.add(new WinnerInfo(b.nickname(), payout));
+            }
+            bh.consume(payout);
+        }
+        return winners;
+    }
+
+    @Benchmark
+    public List<WinnerInfo> bucketed(Blackhole bh) {
+        List<WinnerInfo> winners = new ArrayList<>(bucketed.count(WINNING));
+        List<String> losers = new ArrayList<>(bucketed.size() - bucketed.count(WINNING));
+        for (int n = 1; n <= RoundBets.NUMBERS; n++) {
+            if (n == WINNING) {
+                bucketed.forEach(n, (player, amountCents) -> winners.add(
+                        new WinnerInfo(players.nickname(player), Money.multiplyTenths(amountCents, 99))));
+            } else {
+                bucketed.forEach(n, (player, amountCents) -> losers.add(players.nickname(player)));
+            }
+        }
+        bh.consume(losers);
+        return winners;
+    }
+
+    private record LegacyBet(String nickname, int number, BigDecimal amount) {}
+}
@@ -0,0 +1,80 @@
+package com.liimand.bettinggameserver.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liimand.bettinggameserver.domain.Money;
+import com.liimand.bettinggameserver.domain.PlaceBetResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson cost of the WebSocket protocol: decoding incoming {@code BET}/{@code BET_BATCH} frames into
+ * {@link GameWebSocketHandler.InMessage} and encoding the outgoing records, with the handler's mapper setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MessageCodecBenchmark {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Param({"10", "100"})
+    public int winnerCount;
+
+    private String bet;
+    private String batch;
+    private GameWebSocketHandler.OutWinners winners;
+    private final GameWebSocketHandler.OutYourResult yourResult =
+            new GameWebSocketHandler.OutYourResult(1, "WIN", Money.toDecimal(9_900));
+    private final GameWebSocketHandler.OutRoundOpened roundOpened = new GameWebSocketHandler.OutRoundOpened(1, 1_700_000_000_000L);
+    private final GameWebSocketHandler.OutBatchResult batchResult = new GameWebSocketHandler.OutBatchResult(
+            List.of(PlaceBetResult.ACCEPTED, PlaceBetResult.DUPLICATE, PlaceBetResult.ACCEPTED, PlaceBetResult.INVALID));
+
+    @Setup
+    public void setup() {
+        bet = "{\"type\":\"BET\",\"nickname\":\"Joe\",\"number\":7,\"amount\":10.50}";
+        StringBuilder sb = new StringBuilder("{\"type\":\"BET_BATCH\",\"bets\":[");
+        for (int i = 0; i < 10; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"nickname\":\"player-").append(i).append("\",\"number\":").append(1 + i).append(",\"amount\":5}");
+        }
+        batch = sb.append("]}").toString();
+        List<GameWebSocketHandler.OutWinners.Winner> list = new ArrayList<>();
+        for (int i = 0; i < winnerCount; i++) {
+            list.add(new GameWebSocketHandler.OutWinners.Winner("player-" + i, Money.toDecimal(990L * (i + 1))));
+        }
+        winners = new GameWebSocketHandler.OutWinners(1, list);
+    }
+
+    @Benchmark
+    public GameWebSocketHandler.InMessage decodeBet() throws JsonProcessingException {
+        return mapper.readValue(bet, GameWebSocketHandler.InMessage.class);
+    }
+
+    @Benchmark
+    public GameWebSocketHandler.InMessage decodeBatch() throws JsonProcessingException {
+        return mapper.readValue(batch, GameWebSocketHandler.InMessage.class);
+    }
+
+    @Benchmark
+    public String encodeRoundOpened() throws JsonProcessingException {
+        return mapper.writeValueAsString(roundOpened);
+    }
+
+    @Benchmark
+    public String encodeYourResult() throws JsonProcessingException {
+        return mapper.writeValueAsString(yourResult);
+    }
+
+    @Benchmark
+    public String encodeBatchResult() throws JsonProcessingException {
+        return mapper.writeValueAsString(batchResult);
+    }
+
+    @Benchmark
+    public String encodeWinners() throws JsonProcessingException {
+        return mapper.writeValueAsString(winners);
+    }
+}
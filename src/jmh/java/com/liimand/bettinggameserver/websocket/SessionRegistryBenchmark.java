@@ -0,0 +1,181 @@
+package com.liimand.bettinggameserver.websocket;
+
+import com.liimand.bettinggameserver.websocket.SessionRegistry.BoundPlayers;
+import com.liimand.bettinggameserver.websocket.SessionRegistry.Connection;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-connection bookkeeping of the WebSocket handler with {@code sessions} connections open: the slot-based
+ * {@link SessionRegistry} and broadcast group against the hash maps and concurrent key sets they replaced.
+ * {@code churn} is one disconnect plus reconnect, {@code broadcastWalk} one pass over every session of a group.
+ * With {@code -prof gc}, {@code gc.alloc.rate.norm} of {@code connectAll} divided by {@code sessions} is
+ * roughly what a session costs in memory.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class SessionRegistryBenchmark {
+    private static final BroadcastFanout FANOUT = new BroadcastFanout(0);
+    private static final WebSocketMessage<?> FRAME = new TextMessage("{}");
+
+    @Param({"100000"})
+    public int sessions;
+
+    @Param({"slots", "maps"})
+    public String registry;
+
+    private WebSocketSession[] all;
+    private Sessions open;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        all = new WebSocketSession[sessions];
+        for (int i = 0; i < sessions; i++) all[i] = new BenchSession();
+        open = newSessions(registry);
+        for (int i = 0; i < sessions; i++) open.connect(all[i], i);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void churn() {
+        int i = next;
+        next = i + 1 == sessions ? 0 : i + 1;
+        open.disconnect(all[i]);
+        open.connect(all[i], i);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void broadcastWalk() {
+        open.broadcast(FRAME);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Sessions connectAll(Empty empty) {
+        for (int i = 0; i < sessions; i++) empty.sessions.connect(all[i], i);
+        return empty.sessions;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Empty {
+        Sessions sessions;
+
+        @Setup(Level.Invocation)
+        public void setup(SessionRegistryBenchmark benchmark) {
+            for (WebSocketSession s : benchmark.all) s.getAttributes().clear();
+            sessions = newSessions(benchmark.registry);
+        }
+    }
+
+    private static Sessions newSessions(String registry) {
+        return "slots".equals(registry) ? new SlotSessions() : new MapSessions();
+    }
+
+    /**
+     * Connecting registers the session for broadcasts and binds it to one player, as a betting session is.
+     */
+    public interface Sessions {
+        void connect(WebSocketSession s, int player);
+
+        void disconnect(WebSocketSession s);
+
+        void broadcast(WebSocketMessage<?> frame);
+    }
+
+    static final class SlotSessions implements Sessions {
+        final SessionRegistry registry = new SessionRegistry();
+        final BroadcastFanout.Group group = FANOUT.newGroup();
+
+        @Override
+        public void connect(WebSocketSession s, int player) {
+            Connection c = registry.add(new Connection(s, null, group.register(s)));
+            c.players.add(player);
+        }
+
+        @Override
+        public void disconnect(WebSocketSession s) {
+            Connection c = registry.remove(s);
+            group.unregister(c.groupSlot, s);
+        }
+
+        @Override
+        public void broadcast(WebSocketMessage<?> frame) {
+            group.broadcast(frame);
+        }
+    }
+
+    static final class MapSessions implements Sessions {
+        final ConcurrentMap<WebSocketSession, WebSocketSession> sessions = new ConcurrentHashMap<>();
+        final ConcurrentMap<WebSocketSession, BoundPlayers> playersBySession = new ConcurrentHashMap<>();
+        final Set<WebSocketSession> group = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void connect(WebSocketSession s, int player) {
+            sessions.put(s, s);
+            group.add(s);
+            BoundPlayers bound = new BoundPlayers();
+            bound.add(player);
+            playersBySession.put(s, bound);
+        }
+
+        @Override
+        public void disconnect(WebSocketSession s) {
+            sessions.remove(s);
+            group.remove(s);
+            playersBySession.remove(s);
+        }
+
+        @Override
+        public void broadcast(WebSocketMessage<?> frame) {
+            for (WebSocketSession s : group) {
+                if (s.isOpen()) {
+                    try { s.sendMessage(frame); } catch (Exception ignored) {}
+                }
+            }
+        }
+    }
+
+    static final class BenchSession implements WebSocketSession {
+        private final Map<String, Object> attributes = new HashMap<>();
+
+        @Override public String getId() { return null; }
+        @Override public URI getUri() { return null; }
+        @Override public HttpHeaders getHandshakeHeaders() { return HttpHeaders.EMPTY; }
+        @Override public Map<String, Object> getAttributes() { return attributes; }
+        @Override public Principal getPrincipal() { return null; }
+        @Override public InetSocketAddress getLocalAddress() { return null; }
+        @Override public InetSocketAddress getRemoteAddress() { return null; }
+        @Override public String getAcceptedProtocol() { return null; }
+        @Override public void setTextMessageSizeLimit(int limit) {}
+        @Override public int getTextMessageSizeLimit() { return 0; }
+        @Override public void setBinaryMessageSizeLimit(int limit) {}
+        @Override public int getBinaryMessageSizeLimit() { return 0; }
+        @Override public List<WebSocketExtension> getExtensions() { return List.of(); }
+        @Override public void sendMessage(WebSocketMessage<?> message) {}
+        @Override public boolean isOpen() { return true; }
+        @Override public void close() {}
+        @Override public void close(CloseStatus status) {}
+    }
+}
@@ -0,0 +1,31 @@
+package com.liimand.bettinggameserver.loadgen;
+
+/**
+ * When, within a betting window, a simulated player sends its bet. {@code u} is uniform in [0, 1).
+ */
+public enum ArrivalCurve {
+    /** Bets spread evenly over the window. */
+    UNIFORM {
+        @Override
+        long offsetMs(long windowMs, long lastSecondMs, double u) {
+            return (long) (u * windowMs);
+        }
+    },
+    /** Bet density grows linearly towards the close. */
+    RAMP {
+        @Override
+        long offsetMs(long windowMs, long lastSecondMs, double u) {
+            return (long) (Math.sqrt(u) * windowMs);
+        }
+    },
+    /** Every bet lands in the final {@code lastSecondMs} of the window. */
+    LAST_SECOND {
+        @Override
+        long offsetMs(long windowMs, long lastSecondMs, double u) {
+            long tail = Math.min(lastSecondMs, windowMs);
+            return windowMs - tail + (long) (u * tail);
+        }
+    };
+
+    abstract long offsetMs(long windowMs, long lastSecondMs, double u);
+}
@@ -0,0 +1,66 @@
+package com.liimand.bettinggameserver.loadgen;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @param uri          WebSocket endpoint, e.g. {@code ws://localhost:8080/ws/game}
+ * @param players      simulated players, one connection each
+ * @param rounds       settled rounds to measure before stopping
+ * @param arrival      when players bet within the window
+ * @param lastSecondMs tail of the window used by {@link ArrivalCurve#LAST_SECOND}
+ * @param safetyMs     bets are scheduled at least this long before the close
+ * @param connectRate  connections opened in parallel while ramping up
+ * @param startRound   create the table before connecting and POST {@code /api/rounds/start} once connected, for
+ *                     servers without a running round
+ */
+public record LoadConfig(URI uri, int players, int rounds, ArrivalCurve arrival, long lastSecondMs, long safetyMs,
+                         int connectRate, boolean startRound) {
+
+    public static LoadConfig defaults(URI uri) {
+        return new LoadConfig(uri, 1_000, 3, ArrivalCurve.LAST_SECOND, 1_000, 50, 500, false);
+    }
+
+    public LoadConfig withUri(URI uri) {
+        return new LoadConfig(uri, players, rounds, arrival, lastSecondMs, safetyMs, connectRate, startRound);
+    }
+
+    public LoadConfig withPlayers(int players) {
+        return new LoadConfig(uri, players, rounds, arrival, lastSecondMs, safetyMs, connectRate, startRound);
+    }
+
+    public LoadConfig withRounds(int rounds) {
+        return new LoadConfig(uri, players, rounds, arrival, lastSecondMs, safetyMs, connectRate, startRound);
+    }
+
+    public LoadConfig withArrival(ArrivalCurve arrival) {
+        return new LoadConfig(uri, players, rounds, arrival, lastSecondMs, safetyMs, connectRate, startRound);
+    }
+
+    public LoadConfig withStartRound(boolean startRound) {
+        return new LoadConfig(uri, players, rounds, arrival, lastSecondMs, safetyMs, connectRate, startRound);
+    }
+
+    /**
+     * Parses {@code --uri=... --players=... --rounds=... --arrival=... --last-second-ms=... --safety-ms=...
+     * --connect-rate=... --start-round}.
+     */
+    public static LoadConfig parse(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) throw new IllegalArgumentException("Unexpected argument: " + arg);
+            int eq = arg.indexOf('=');
+            opts.put(eq < 0 ? arg.substring(2) : arg.substring(2, eq), eq < 0 ? "true" : arg.substring(eq + 1));
+        }
+        LoadConfig d = defaults(URI.create(opts.getOrDefault("uri", "ws://localhost:8080/ws/game")));
+        return new LoadConfig(d.uri(),
+                Integer.parseInt(opts.getOrDefault("players", String.valueOf(d.players()))),
+                Integer.parseInt(opts.getOrDefault("rounds", String.valueOf(d.rounds()))),
+                ArrivalCurve.valueOf(opts.getOrDefault("arrival", d.arrival().name()).toUpperCase()),
+                Long.parseLong(opts.getOrDefault("last-second-ms", String.valueOf(d.lastSecondMs()))),
+                Long.parseLong(opts.getOrDefault("safety-ms", String.valueOf(d.safetyMs()))),
+                Integer.parseInt(opts.getOrDefault("connect-rate", String.valueOf(d.connectRate()))),
+                Boolean.parseBoolean(opts.getOrDefault("start-round", "false")));
+    }
+}
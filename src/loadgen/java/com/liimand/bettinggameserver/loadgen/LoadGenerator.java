@@ -0,0 +1,152 @@
+package com.liimand.bettinggameserver.loadgen;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Opens {@link LoadConfig#players()} WebSocket connections, lets every player bet once per round on the
+ * configured arrival curve and stops after {@link LoadConfig#rounds()} rounds opened during the run have
+ * settled. Runs standalone through {@link #main} (the {@code loadgen} Gradle task) or in-process from a test.
+ */
+public final class LoadGenerator {
+    private static final long GRACE_MS = 500;
+
+    private final LoadConfig config;
+    private final LoadReport report = new LoadReport();
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final ScheduledExecutorService scheduler =
+            Executors.newScheduledThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+    private final ConcurrentMap<Long, RoundTrace> rounds = new ConcurrentHashMap<>();
+    private final CountDownLatch settled;
+    private volatile boolean measuring;
+
+    public LoadGenerator(LoadConfig config) {
+        this.config = config;
+        this.settled = new CountDownLatch(config.rounds());
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadReport report = new LoadGenerator(LoadConfig.parse(args)).run(Duration.ofMinutes(30));
+        report.print(System.out);
+    }
+
+    public LoadReport run(Duration timeout) throws InterruptedException {
+        if (config.startRound()) createTable();
+        Queue<WebSocket> sockets = connect();
+        try {
+            measuring = true;
+            if (config.startRound()) startRound();
+            settled.await(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            Thread.sleep(GRACE_MS);
+            for (RoundTrace trace : rounds.values()) trace.recordSkew(report);
+            return report;
+        } finally {
+            for (WebSocket ws : sockets) ws.abort();
+            scheduler.shutdownNow();
+        }
+    }
+
+    LoadConfig config() { return config; }
+
+    LoadReport report() { return report; }
+
+    ScheduledExecutorService scheduler() { return scheduler; }
+
+    void roundOpened(long roundId, long closesAtMs, long receivedNanos) {
+        if (!measuring) return;
+        rounds.computeIfAbsent(roundId, id -> new RoundTrace(closesAtMs)).opened.add(receivedNanos);
+    }
+
+    void roundSettled(long roundId) {
+        RoundTrace trace = rounds.get(roundId);
+        if (trace != null && trace.settled.compareAndSet(false, true)) settled.countDown();
+    }
+
+    /**
+     * Close time of a round opened while measuring, or 0 for rounds the run does not measure.
+     */
+    long measuredCloseMs(long roundId) {
+        RoundTrace trace = rounds.get(roundId);
+        return trace == null ? 0 : trace.closesAtMs;
+    }
+
+    static long wallClockMicros() {
+        Instant now = Instant.now();
+        return TimeUnit.SECONDS.toMicros(now.getEpochSecond()) + TimeUnit.NANOSECONDS.toMicros(now.getNano());
+    }
+
+    private Queue<WebSocket> connect() throws InterruptedException {
+        Queue<WebSocket> sockets = new ConcurrentLinkedQueue<>();
+        Semaphore inFlight = new Semaphore(config.connectRate());
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        for (int i = 0; i < config.players(); i++) {
+            inFlight.acquire();
+            client.newWebSocketBuilder()
+                    .buildAsync(config.uri(), new SimulatedPlayer("lg-" + run + "-" + i, this))
+                    .whenComplete((ws, e) -> {
+                        if (e != null) report.connectFailures.increment();
+                        else sockets.add(ws);
+                        inFlight.release();
+                    });
+        }
+        inFlight.acquire(config.connectRate());
+        return sockets;
+    }
+
+    /**
+     * Creates the table of a {@code /ws/game/{tableId}} URI, since handshakes to unknown tables are refused.
+     */
+    private void createTable() {
+        String table = table();
+        if (table != null) send("PUT", "/api/tables/" + table);
+    }
+
+    private void startRound() {
+        String table = table();
+        send("POST", table == null ? "/api/rounds/start" : "/api/tables/" + table + "/rounds/start");
+    }
+
+    private String table() {
+        String path = config.uri().getPath();
+        return path.startsWith("/ws/game/") ? path.substring("/ws/game/".length()) : null;
+    }
+
+    private void send(String method, String path) {
+        String scheme = "wss".equals(config.uri().getScheme()) ? "https" : "http";
+        URI uri = URI.create(scheme + "://" + config.uri().getAuthority() + path);
+        try {
+            client.send(HttpRequest.newBuilder(uri).method(method, HttpRequest.BodyPublishers.noBody()).build(),
+                    HttpResponse.BodyHandlers.discarding());
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not " + method + " " + uri, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class RoundTrace {
+        final long closesAtMs;
+        final Queue<Long> opened = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean settled = new AtomicBoolean();
+
+        RoundTrace(long closesAtMs) {
+            this.closesAtMs = closesAtMs;
+        }
+
+        void recordSkew(LoadReport report) {
+            List<Long> times = List.copyOf(opened);
+            long first = times.stream().mapToLong(Long::longValue).min().orElse(0);
+            for (long t : times) report.recordOpenSkew(TimeUnit.NANOSECONDS.toMicros(t - first));
+        }
+    }
+}
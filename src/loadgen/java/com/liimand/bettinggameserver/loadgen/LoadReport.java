@@ -0,0 +1,95 @@
+package com.liimand.bettinggameserver.loadgen;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms of a load run, recorded in microseconds:
+ * <ul>
+ *     <li>{@code betAck} – {@code BET} sent to {@code BET_ACCEPTED} received</li>
+ *     <li>{@code openSkew} – a player's {@code ROUND_OPENED} against the first player to receive it</li>
+ *     <li>{@code resultLatency} – the round's {@code closesAtMs} to the player's {@code YOUR_RESULT}</li>
+ * </ul>
+ */
+public final class LoadReport {
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final Histogram betAck = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+    private final Histogram openSkew = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+    private final Histogram resultLatency = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+    final LongAdder betsSent = new LongAdder();
+    final LongAdder betsAccepted = new LongAdder();
+    final LongAdder betsRejected = new LongAdder();
+    /** Rejections that only mean the bet arrived after its round had closed; also counted in {@code betsRejected}. */
+    final LongAdder betsTooLate = new LongAdder();
+    final LongAdder results = new LongAdder();
+    final LongAdder connectFailures = new LongAdder();
+
+    void recordBetAck(long micros) {
+        betAck.recordValue(clamp(micros));
+    }
+
+    void recordOpenSkew(long micros) {
+        openSkew.recordValue(clamp(micros));
+    }
+
+    void recordResult(long micros) {
+        resultLatency.recordValue(clamp(micros));
+    }
+
+    public Histogram betAck() { return betAck; }
+
+    public Histogram openSkew() { return openSkew; }
+
+    public Histogram resultLatency() { return resultLatency; }
+
+    public long betsSent() { return betsSent.sum(); }
+
+    public long betsAccepted() { return betsAccepted.sum(); }
+
+    public long betsRejected() { return betsRejected.sum(); }
+
+    public long betsTooLate() { return betsTooLate.sum(); }
+
+    public long results() { return results.sum(); }
+
+    public long connectFailures() { return connectFailures.sum(); }
+
+    /**
+     * Value at {@code percentile} of the histogram, in milliseconds.
+     */
+    public static double percentileMs(Histogram h, double percentile) {
+        return h.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    public void print(PrintStream out) {
+        out.printf("bets sent=%d accepted=%d rejected=%d (too late=%d) results=%d connect failures=%d%n",
+                betsSent(), betsAccepted(), betsRejected(), betsTooLate(), results(), connectFailures());
+        summary(out, "bet -> BET_ACCEPTED", betAck);
+        summary(out, "ROUND_OPENED skew", openSkew);
+        summary(out, "close -> YOUR_RESULT", resultLatency);
+        distribution(out, "bet -> BET_ACCEPTED", betAck);
+        distribution(out, "ROUND_OPENED skew", openSkew);
+        distribution(out, "close -> YOUR_RESULT", resultLatency);
+    }
+
+    private static void summary(PrintStream out, String name, Histogram h) {
+        out.printf("%-22s n=%-8d p50=%8.2fms p90=%8.2fms p99=%8.2fms p99.9=%8.2fms max=%8.2fms%n", name,
+                h.getTotalCount(), percentileMs(h, 50), percentileMs(h, 90), percentileMs(h, 99),
+                percentileMs(h, 99.9), h.getMaxValue() / 1000.0);
+    }
+
+    private static void distribution(PrintStream out, String name, Histogram h) {
+        out.println();
+        out.println("# " + name + " (ms)");
+        h.outputPercentileDistribution(out, 1000.0);
+    }
+
+    private static long clamp(long micros) {
+        return Math.min(Math.max(0, micros), HIGHEST_MICROS);
+    }
+}
@@ -0,0 +1,102 @@
+package com.liimand.bettinggameserver.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.http.WebSocket;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One player on one connection: bets once per round at the time its arrival curve picks and records what the
+ * server sends back. The JDK client calls a listener sequentially, so the fields need no locking.
+ */
+final class SimulatedPlayer implements WebSocket.Listener {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String nickname;
+    private final LoadGenerator generator;
+    private final StringBuilder partial = new StringBuilder();
+    private volatile WebSocket socket;
+    private volatile long betSentNanos;
+    private long lastBetRound;
+
+    SimulatedPlayer(String nickname, LoadGenerator generator) {
+        this.nickname = nickname;
+        this.generator = generator;
+    }
+
+    @Override
+    public void onOpen(WebSocket webSocket) {
+        socket = webSocket;
+        webSocket.request(1);
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+        partial.append(data);
+        if (last) {
+            try {
+                handle(MAPPER.readTree(partial.toString()));
+            } catch (IOException ignored) {
+                // not a frame of ours
+            }
+            partial.setLength(0);
+        }
+        webSocket.request(1);
+        return null;
+    }
+
+    private void handle(JsonNode msg) {
+        long nowNanos = System.nanoTime();
+        LoadReport report = generator.report();
+        switch (msg.path("type").asText()) {
+            case "ROUND_OPENED" -> {
+                long roundId = msg.path("roundId").asLong();
+                long closesAtMs = msg.path("closesAtMs").asLong();
+                generator.roundOpened(roundId, closesAtMs, nowNanos);
+                scheduleBet(roundId, closesAtMs);
+            }
+            case "ROUND_SETTLED" -> generator.roundSettled(msg.path("roundId").asLong());
+            case "BET_ACCEPTED" -> {
+                report.betsAccepted.increment();
+                report.recordBetAck(TimeUnit.NANOSECONDS.toMicros(nowNanos - betSentNanos));
+            }
+            case "ROUND_CLOSED" -> {
+                report.betsTooLate.increment();
+                report.betsRejected.increment();
+            }
+            case "DUPLICATE", "INVALID", "VALIDATION", "BAD_JSON" -> report.betsRejected.increment();
+            case "YOUR_RESULT" -> {
+                long closesAtMs = generator.measuredCloseMs(msg.path("roundId").asLong());
+                if (closesAtMs > 0) {
+                    report.results.increment();
+                    report.recordResult(LoadGenerator.wallClockMicros() - TimeUnit.MILLISECONDS.toMicros(closesAtMs));
+                }
+            }
+            default -> { }
+        }
+    }
+
+    private void scheduleBet(long roundId, long closesAtMs) {
+        if (roundId <= lastBetRound) return;
+        lastBetRound = roundId;
+        LoadConfig config = generator.config();
+        long usableMs = closesAtMs - System.currentTimeMillis() - config.safetyMs();
+        if (usableMs <= 0) return;
+        long offset = config.arrival().offsetMs(usableMs, config.lastSecondMs(), ThreadLocalRandom.current().nextDouble());
+        generator.scheduler().schedule(this::sendBet, offset, TimeUnit.MILLISECONDS);
+    }
+
+    private void sendBet() {
+        WebSocket ws = socket;
+        if (ws == null || ws.isOutputClosed()) return;
+        int number = 1 + ThreadLocalRandom.current().nextInt(10);
+        String bet = "{\"type\":\"BET\",\"nickname\":\"" + nickname + "\",\"number\":" + number + ",\"amount\":1.00}";
+        generator.report().betsSent.increment();
+        betSentNanos = System.nanoTime();
+        ws.sendText(bet, true);
+    }
+}
@@ -0,0 +1,52 @@
+package com.liimand.bettinggameserver.loadgen;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Runs the same load against the servlet and the Netty socket of a server started with
+ * {@code game.transport=both}, one after the other, and prints connection capacity and fan-out latency side by
+ * side. Only the servlet run may start a round, the Netty port has no REST API; with auto-repeat on the server
+ * keeps rounds going for the second run.
+ */
+public final class TransportComparison {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> uris = new LinkedHashMap<>();
+        uris.put("servlet", "ws://localhost:8080/ws/game");
+        uris.put("netty", "ws://localhost:8081/ws/game");
+        for (String arg : args) {
+            for (String transport : uris.keySet()) {
+                if (arg.startsWith("--" + transport + "-uri=")) uris.put(transport, arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        LoadConfig config = LoadConfig.parse(args);
+
+        Map<String, LoadReport> reports = new LinkedHashMap<>();
+        for (Map.Entry<String, String> e : uris.entrySet()) {
+            LoadConfig run = config.withUri(URI.create(e.getValue()))
+                    .withStartRound(config.startRound() && e.getKey().equals("servlet"));
+            reports.put(e.getKey(), new LoadGenerator(run).run(Duration.ofMinutes(30)));
+        }
+        print(System.out, config.players(), reports);
+    }
+
+    static void print(PrintStream out, int players, Map<String, LoadReport> reports) {
+        out.printf("%-8s %10s %28s %12s %12s%n", "", "connected", "ROUND_OPENED skew p50/p99/p99.9",
+                "result p99", "bet ack p99");
+        for (Map.Entry<String, LoadReport> e : reports.entrySet()) {
+            LoadReport r = e.getValue();
+            Histogram skew = r.openSkew();
+            out.printf("%-8s %10s %8.2f/%8.2f/%8.2fms %10.2fms %10.2fms%n", e.getKey(),
+                    (players - r.connectFailures()) + "/" + players,
+                    LoadReport.percentileMs(skew, 50), LoadReport.percentileMs(skew, 99),
+                    LoadReport.percentileMs(skew, 99.9),
+                    LoadReport.percentileMs(r.resultLatency(), 99), LoadReport.percentileMs(r.betAck(), 99));
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package com.liimand.bettinggameserver.config;
 
+import com.liimand.bettinggameserver.dto.ErrorDto;
+import com.liimand.bettinggameserver.service.TableLimitException;
+import com.liimand.bettinggameserver.service.UnknownTableException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -22,4 +26,14 @@ public class ApiExceptionHandler {
                 "errors", errors
         ));
     }
+
+    @ExceptionHandler(UnknownTableException.class)
+    public ResponseEntity<ErrorDto> onUnknownTable(UnknownTableException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErrorDto("UNKNOWN_TABLE", ex.getMessage()));
+    }
+
+    @ExceptionHandler(TableLimitException.class)
+    public ResponseEntity<ErrorDto> onTableLimit(TableLimitException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorDto("TABLE_LIMIT", ex.getMessage()));
+    }
 }
@@ -1,16 +1,70 @@
 package com.liimand.bettinggameserver.config;
 
+import com.liimand.bettinggameserver.service.BetJournal;
+import com.liimand.bettinggameserver.service.ExecutorRoundTimer;
+import com.liimand.bettinggameserver.service.HashedWheelRoundTimer;
+import com.liimand.bettinggameserver.service.MappedBetJournal;
+import com.liimand.bettinggameserver.service.NdjsonRoundArchive;
+import com.liimand.bettinggameserver.service.RoundArchive;
+import com.liimand.bettinggameserver.service.RoundTimer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.concurrent.Executors;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 
 @Configuration
 public class GameConfig {
 
     @Bean(destroyMethod = "shutdown")
-    public ScheduledExecutorService scheduledExecutorService() {
-        return Executors.newSingleThreadScheduledExecutor();
+    public ScheduledExecutorService scheduledExecutorService(@Value("${game.scheduler-threads:1}") int threads) {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(threads);
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "game.timer", havingValue = "executor", matchIfMissing = true)
+    public RoundTimer executorRoundTimer(ScheduledExecutorService scheduler) {
+        return new ExecutorRoundTimer(scheduler);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "game.timer", havingValue = "wheel")
+    public RoundTimer wheelRoundTimer(@Value("${game.timer.tick-ms:10}") long tickMs,
+                                      @Value("${game.timer.wheel-size:512}") int wheelSize,
+                                      @Value("${game.scheduler-threads:1}") int threads) {
+        return new HashedWheelRoundTimer(tickMs, wheelSize, threads);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "game.journal.enabled", havingValue = "false", matchIfMissing = true)
+    public BetJournal noopBetJournal() {
+        return BetJournal.NOOP;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "game.journal.enabled", havingValue = "true")
+    public BetJournal mappedBetJournal(@Value("${game.journal.dir:journal}") Path dir,
+                                       @Value("${game.journal.segment-bytes:67108864}") int segmentBytes,
+                                       @Value("${game.journal.flush-interval-ms:5}") long flushIntervalMs,
+                                       @Value("${game.journal.flush-batch:4096}") int flushBatch) throws IOException {
+        return new MappedBetJournal(dir, segmentBytes, flushIntervalMs, flushBatch);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "game.archive.enabled", havingValue = "false", matchIfMissing = true)
+    public RoundArchive noopRoundArchive() {
+        return RoundArchive.NOOP;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "game.archive.enabled", havingValue = "true")
+    public RoundArchive ndjsonRoundArchive(@Value("${game.archive.dir:archive}") Path dir) throws IOException {
+        return new NdjsonRoundArchive(dir);
     }
 }
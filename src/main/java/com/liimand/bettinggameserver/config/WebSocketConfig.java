@@ -1,21 +1,31 @@
 package com.liimand.bettinggameserver.config;
 
 import com.liimand.bettinggameserver.websocket.GameWebSocketHandler;
+import com.liimand.bettinggameserver.websocket.TableHandshakeInterceptor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
 import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
 import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
 
 @Configuration
 @EnableWebSocket
+@ConditionalOnExpression("'${game.transport:servlet}' != 'netty'")
 @RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketConfigurer {
 
     private final GameWebSocketHandler handler;
+    private final TableHandshakeInterceptor tableInterceptor;
 
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
-        registry.addHandler(handler, "/ws/game").setAllowedOrigins("*");
+        DefaultHandshakeHandler handshakeHandler = new DefaultHandshakeHandler();
+        handshakeHandler.setSupportedProtocols(GameWebSocketHandler.BINARY_PROTOCOL);
+        registry.addHandler(handler, "/ws/game", "/ws/game/*")
+                .setHandshakeHandler(handshakeHandler)
+                .addInterceptors(tableInterceptor)
+                .setAllowedOrigins("*");
     }
 }
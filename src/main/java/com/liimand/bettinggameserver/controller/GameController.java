@@ -1,57 +1,233 @@
 package com.liimand.bettinggameserver.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.liimand.bettinggameserver.domain.Bet;
+import com.liimand.bettinggameserver.domain.Money;
 import com.liimand.bettinggameserver.domain.PlaceBetResult;
 import com.liimand.bettinggameserver.domain.RoundInfo;
-import com.liimand.bettinggameserver.domain.Settlement;
+import com.liimand.bettinggameserver.domain.RoundState;
 import com.liimand.bettinggameserver.domain.mapper.RoundInfoMapper;
 import com.liimand.bettinggameserver.domain.mapper.SettlementMapper;
+import com.liimand.bettinggameserver.dto.BetBatchRequest;
+import com.liimand.bettinggameserver.dto.BetBatchResultDto;
 import com.liimand.bettinggameserver.dto.BetRequest;
 import com.liimand.bettinggameserver.dto.ErrorDto;
 import com.liimand.bettinggameserver.dto.RoundDto;
-import com.liimand.bettinggameserver.dto.SettlementDto;
 import com.liimand.bettinggameserver.service.GameService;
+import com.liimand.bettinggameserver.service.GameTable;
+import com.liimand.bettinggameserver.service.SettlementHistory;
+import com.liimand.bettinggameserver.service.Versioned;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api")
 @RequiredArgsConstructor
 public class GameController {
+    private static final int MAX_PAGE = 1000;
+
     private final GameService gameService;
     private final RoundInfoMapper roundInfoMapper;
     private final SettlementMapper settlementMapper;
+    private final ObjectMapper objectMapper;
+    private final SpectatorStream spectators;
+    private final RoundWaiters roundWaiters;
 
-    @PostMapping("/rounds/start")
-    public ResponseEntity<RoundDto> startRound() {
-        RoundInfo round = gameService.startNewRound();
-        return ResponseEntity.ok(roundInfoMapper.toDto(round));
+    @GetMapping("/tables")
+    public ResponseEntity<List<String>> tables() {
+        return ResponseEntity.ok(gameService.tables().stream().map(GameTable::getId).sorted().toList());
     }
 
-    @GetMapping("/rounds/current")
-    public ResponseEntity<RoundDto> currentRound() {
-        RoundInfo round = gameService.getCurrentRoundSnapshot();
-        if (round == null) return ResponseEntity.noContent().build();
+    /**
+     * Creates the table without opening a round, so players and spectators can join before the first one.
+     * Starting a round creates its table too; either is answered with {@code 409 TABLE_LIMIT} once
+     * {@code game.tables.max} tables exist, and every other request for an unknown table with
+     * {@code 404 UNKNOWN_TABLE}.
+     */
+    @PutMapping("/tables/{tableId}")
+    public ResponseEntity<Void> createTable(@PathVariable String tableId) {
+        gameService.createTable(tableId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping({"/rounds/start", "/tables/{tableId}/rounds/start"})
+    public ResponseEntity<RoundDto> startRound(@PathVariable(required = false) String tableId) {
+        RoundInfo round = gameService.startNewRound(table(tableId));
         return ResponseEntity.ok(roundInfoMapper.toDto(round));
     }
 
-    @PostMapping("/bets")
-    public ResponseEntity<?> placeBet(@Valid @RequestBody BetRequest req) {
-        PlaceBetResult res = gameService.placeBet(new Bet(req.nickname(), req.number(), req.amount()));
+    @GetMapping({"/rounds/current", "/tables/{tableId}/rounds/current"})
+    public ResponseEntity<byte[]> currentRound(@PathVariable(required = false) String tableId) {
+        return snapshot(gameService.getVersionedRound(table(tableId)), roundInfoMapper::toDto);
+    }
+
+    /**
+     * Long-poll for the next round to open or settle after {@code afterRound}; {@code 204} once
+     * {@code game.long-poll.timeout-ms} passes without one.
+     */
+    @GetMapping({"/rounds/next", "/tables/{tableId}/rounds/next"})
+    public DeferredResult<ResponseEntity<?>> nextRound(@PathVariable(required = false) String tableId,
+                                                       @RequestParam(required = false) Long afterRound,
+                                                       @RequestParam(defaultValue = "OPEN") RoundState state) {
+        if (state == RoundState.SETTLING) {
+            DeferredResult<ResponseEntity<?>> invalid = new DeferredResult<>();
+            invalid.setResult(ResponseEntity.badRequest().body(new ErrorDto("VALIDATION", "state must be OPEN or CLOSED")));
+            return invalid;
+        }
+        return roundWaiters.await(table(tableId), afterRound, state);
+    }
+
+    @PostMapping({"/bets", "/tables/{tableId}/bets"})
+    public ResponseEntity<?> placeBet(@PathVariable(required = false) String tableId,
+                                      @Valid @RequestBody BetRequest req) {
+        PlaceBetResult res = gameService.placeBet(table(tableId),
+                new Bet(req.nickname(), req.number(), Money.toMinorUnits(req.amount())), req.idempotencyKey());
         return switch (res) {
             case ACCEPTED -> ResponseEntity.accepted().build();
             case CLOSED -> ResponseEntity.status(409).body(new ErrorDto("ROUND_CLOSED", "Betting is closed"));
             case DUPLICATE -> ResponseEntity.status(409).body(new ErrorDto("DUPLICATE", "You have already placed a bet this round"));
             case INVALID -> ResponseEntity.badRequest().body(new ErrorDto("INVALID", "Invalid bet"));
+            case RATE_LIMITED -> ResponseEntity.status(429).body(new ErrorDto("RATE_LIMITED", "Too many requests"));
+        };
+    }
+
+    @PostMapping({"/bets/batch", "/tables/{tableId}/bets/batch"})
+    public ResponseEntity<?> placeBets(@PathVariable(required = false) String tableId,
+                                       @RequestBody BetBatchRequest req) {
+        if (req.bets() == null || req.bets().isEmpty() || req.bets().size() > gameService.getMaxBatchSize()) {
+            return ResponseEntity.badRequest().body(new ErrorDto("VALIDATION",
+                    "Batch must contain 1.." + gameService.getMaxBatchSize() + " bets"));
+        }
+        List<Bet> bets = req.bets().stream().map(GameController::toBet).toList();
+        return ResponseEntity.ok(new BetBatchResultDto(gameService.placeBets(table(tableId), bets)));
+    }
+
+    @GetMapping({"/settlement", "/tables/{tableId}/settlement"})
+    public ResponseEntity<byte[]> lastSettlement(@PathVariable(required = false) String tableId) {
+        return snapshot(gameService.getVersionedSettlement(table(tableId)), settlementMapper::toDto);
+    }
+
+    /**
+     * Every bet and payout of a settled round as NDJSON, sent from the archived file with
+     * {@link FileChannel#transferTo}, so the heap used doesn't grow with the round's size.
+     */
+    @GetMapping({"/rounds/{roundId}/export", "/tables/{tableId}/rounds/{roundId}/export"})
+    public ResponseEntity<?> exportRound(@PathVariable(required = false) String tableId,
+                                         @PathVariable long roundId) throws IOException {
+        Path file = gameService.getArchivedRound(table(tableId), roundId);
+        FileChannel channel;
+        try {
+            channel = file != null ? FileChannel.open(file, StandardOpenOption.READ) : null;
+        } catch (NoSuchFileException e) {
+            channel = null;
+        }
+        if (channel == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ErrorDto("UNKNOWN_ROUND", "Round " + roundId + " is not archived"));
+        }
+        FileChannel source = channel;
+        long size = source.size();
+        StreamingResponseBody body = out -> {
+            try (source) {
+                WritableByteChannel target = Channels.newChannel(out);
+                for (long position = 0; position < size; ) {
+                    position += source.transferTo(position, size - position, target);
+                }
+            }
         };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .contentLength(size)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"round-" + roundId + ".ndjson\"")
+                .body(body);
+    }
+
+    /**
+     * Settled rounds still in the table's history, oldest first. Each entry is serialized once and the cached
+     * bytes are reused by every later request.
+     */
+    @GetMapping({"/settlements", "/tables/{tableId}/settlements"})
+    public ResponseEntity<?> settlements(@PathVariable(required = false) String tableId,
+                                         @RequestParam(required = false) Long fromRound,
+                                         @RequestParam(defaultValue = "50") int limit) {
+        if (limit < 1 || limit > MAX_PAGE) {
+            return ResponseEntity.badRequest().body(new ErrorDto("VALIDATION", "limit must be 1.." + MAX_PAGE));
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write('[');
+        List<SettlementHistory.Entry> page = gameService.getSettlements(table(tableId), fromRound, limit);
+        for (int i = 0; i < page.size(); i++) {
+            if (i > 0) body.write(',');
+            body.writeBytes(page.get(i).encoded(this::encode));
+        }
+        body.write(']');
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body.toByteArray());
+    }
+
+    /**
+     * Server-Sent Events of the table's rounds for clients that only watch: {@code ROUND_OPENED},
+     * {@code ROUND_SETTLED}, {@code WINNERS} and {@code POOL_STATS}, the message type as the event name.
+     */
+    @GetMapping({"/stream", "/tables/{tableId}/stream"})
+    public ResponseEntity<ResponseBodyEmitter> stream(@PathVariable(required = false) String tableId) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .cacheControl(CacheControl.noStore())
+                .body(spectators.subscribe(table(tableId)));
+    }
+
+    /**
+     * A published state as JSON serialized once per version, with the version as its ETag: a matching
+     * {@code If-None-Match} gets {@code 304} without a body.
+     */
+    private <T> ResponseEntity<byte[]> snapshot(Versioned<T> published, Function<T, ?> toDto) {
+        if (published == null) return ResponseEntity.noContent().build();
+        return ResponseEntity.ok()
+                .eTag(Long.toString(published.version()))
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(published.encoded(v -> json(toDto.apply(v))));
+    }
+
+    private byte[] encode(SettlementHistory.Entry entry) {
+        return json(settlementMapper.toDto(entry.toSettlement()));
+    }
+
+    private byte[] json(Object dto) {
+        try {
+            return objectMapper.writeValueAsBytes(dto);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String table(String tableId) {
+        return tableId != null ? tableId : GameService.DEFAULT_TABLE;
     }
 
-    @GetMapping("/settlement")
-    public ResponseEntity<SettlementDto> lastSettlement() {
-        Settlement settlement = gameService.getLastSettlement();
-        if (settlement == null) return ResponseEntity.noContent().build();
-        return ResponseEntity.ok(settlementMapper.toDto(settlement));
+    private static Bet toBet(BetRequest r) {
+        if (r == null) return null;
+        return new Bet(r.nickname(), r.number(), Money.toMinorUnitsOrZero(r.amount()));
     }
 }
@@ -0,0 +1,155 @@
+package com.liimand.bettinggameserver.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liimand.bettinggameserver.domain.RoundInfo;
+import com.liimand.bettinggameserver.domain.RoundState;
+import com.liimand.bettinggameserver.domain.WinnerInfo;
+import com.liimand.bettinggameserver.domain.mapper.RoundInfoMapper;
+import com.liimand.bettinggameserver.dto.RoundDto;
+import com.liimand.bettinggameserver.service.GameListener;
+import com.liimand.bettinggameserver.service.GameService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Parked {@code GET /api/rounds/next} requests. A table's waiters are released together when a round they wait
+ * for opens or settles, all with the same response, serialized once per transition. A waiter that sees nothing
+ * within {@code game.long-poll.timeout-ms} gets {@code 204} and polls again.
+ */
+@Component
+@RequiredArgsConstructor
+public class RoundWaiters {
+    private static final ResponseEntity<?> TIMED_OUT = ResponseEntity.noContent().build();
+
+    private final GameService gameService;
+    private final RoundInfoMapper roundInfoMapper;
+    private final ObjectMapper mapper;
+    private final ConcurrentMap<String, TableWaiters> tables = new ConcurrentHashMap<>();
+
+    @Value("${game.long-poll.timeout-ms:30000}")
+    private long timeoutMs = 30_000;
+
+    @PostConstruct
+    void init() {
+        gameService.registerTableListener(tableId -> tables.computeIfAbsent(tableId, TableWaiters::new));
+    }
+
+    /**
+     * Completes with the first round after {@code afterRound} to reach {@code state} ({@code OPEN} or
+     * {@code CLOSED}), right away if it already has. Without {@code afterRound} it waits for the next transition.
+     */
+    public DeferredResult<ResponseEntity<?>> await(String tableId, Long afterRound, RoundState state) {
+        TableWaiters table = tables.computeIfAbsent(gameService.table(tableId).getId(), TableWaiters::new);
+        RoundInfo current = gameService.getCurrentRoundSnapshot(table.tableId);
+        long after = afterRound != null ? afterRound
+                : current == null ? 0
+                : state == RoundState.CLOSED && current.state() != RoundState.CLOSED ? current.roundId() - 1
+                : current.roundId();
+
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(timeoutMs, TIMED_OUT);
+        Transition last = table.last(state);
+        if (last != null && last.roundId > after) {
+            result.setResult(last.response);
+        } else if (current != null && current.roundId() > after && current.state() == state) {
+            result.setResult(response(roundInfoMapper.toDto(current)));
+        } else {
+            Waiter waiter = new Waiter(after, result);
+            Set<Waiter> waiters = table.waiters(state);
+            waiters.add(waiter);
+            result.onCompletion(() -> waiters.remove(waiter));
+            // a transition published between the checks above and add() would otherwise be missed
+            last = table.last(state);
+            if (last != null && last.roundId > after && waiters.remove(waiter)) result.setResult(last.response);
+        }
+        return result;
+    }
+
+    private ResponseEntity<?> response(RoundDto dto) {
+        try {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(mapper.writeValueAsBytes(dto));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Waiter(long afterRound, DeferredResult<ResponseEntity<?>> result) {}
+
+    private record Transition(long roundId, RoundDto round, ResponseEntity<?> response) {}
+
+    /**
+     * Waiters and the latest transitions of one table.
+     */
+    private final class TableWaiters implements GameListener {
+        final String tableId;
+        final Set<Waiter> opening = ConcurrentHashMap.newKeySet();
+        final Set<Waiter> closing = ConcurrentHashMap.newKeySet();
+        volatile Transition opened;
+        volatile Transition closed;
+
+        TableWaiters(String tableId) { this.tableId = tableId; }
+
+        Transition last(RoundState state) {
+            return state == RoundState.CLOSED ? closed : opened;
+        }
+
+        Set<Waiter> waiters(RoundState state) {
+            return state == RoundState.CLOSED ? closing : opening;
+        }
+
+        @Override
+        public void onRoundOpened(long roundId, long closesAtMs) {
+            RoundInfo r = gameService.getCurrentRoundSnapshot(tableId);
+            // already replaced: the newer round's event releases the waiters
+            if (r == null || r.roundId() != roundId) return;
+            RoundDto dto = new RoundDto(roundId, RoundState.OPEN.name(), r.openedAt().toEpochMilli(), closesAtMs, null);
+            opened = new Transition(roundId, dto, response(dto));
+            release(opening, opened);
+        }
+
+        @Override
+        public void onRoundSettled(long roundId, int winningNumber) {
+            Transition o = opened;
+            RoundDto dto;
+            if (o != null && o.roundId == roundId) {
+                dto = new RoundDto(roundId, RoundState.CLOSED.name(), o.round.getOpenedAtMs(),
+                        o.round.getBettingClosesAtMs(), winningNumber);
+            } else {
+                RoundInfo r = gameService.getCurrentRoundSnapshot(tableId);
+                if (r == null || r.roundId() != roundId) return;
+                dto = new RoundDto(roundId, RoundState.CLOSED.name(), r.openedAt().toEpochMilli(),
+                        r.bettingClosesAt().toEpochMilli(), winningNumber);
+            }
+            closed = new Transition(roundId, dto, response(dto));
+            release(closing, closed);
+        }
+
+        @Override
+        public void onWinnersAnnounced(long roundId, List<WinnerInfo> winners) {
+        }
+
+        @Override
+        public void onPlayerResult(long roundId, String nickname, long payoutCents) {
+        }
+
+        @Override
+        public void onPlayersLost(long roundId, List<String> nicknames) {
+        }
+
+        private void release(Set<Waiter> waiters, Transition t) {
+            for (Waiter w : waiters) {
+                if (w.afterRound < t.roundId && waiters.remove(w)) w.result.setResult(t.response);
+            }
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.liimand.bettinggameserver.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liimand.bettinggameserver.domain.Money;
+import com.liimand.bettinggameserver.domain.RoundInfo;
+import com.liimand.bettinggameserver.domain.WinnerInfo;
+import com.liimand.bettinggameserver.service.GameListener;
+import com.liimand.bettinggameserver.service.GameService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-Sent Events for spectators: round events of a table without the betting socket. Every event is encoded
+ * once into a complete SSE frame and the same byte array is queued for every subscriber, so a subscriber costs
+ * its emitter and a small queue, nothing per event. Each subscriber's queue holds at most
+ * {@code game.stream.buffer} frames and is written out in order by one of {@code game.stream.writer-threads}
+ * shared writers, never by two at once. A blocked write only holds up that spectator and one writer; once it
+ * falls a full buffer behind, its stream is completed and it is dropped, so neither the event bus nor the other
+ * spectators wait for it. A comment line every
+ * {@code game.stream.heartbeat-seconds} keeps proxies from closing idle streams and weeds out dead ones.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SpectatorStream {
+    private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.US_ASCII);
+    /** Spectator streams stay open until the client leaves. */
+    private static final long NO_TIMEOUT = 0L;
+
+    private final GameService gameService;
+    private final ObjectMapper mapper;
+    private final ScheduledExecutorService scheduler;
+    private final ConcurrentMap<String, TableStream> streams = new ConcurrentHashMap<>();
+    @Value("${game.stream.heartbeat-seconds:15}")
+    private long heartbeatSeconds = 15;
+
+    @Value("${game.stream.buffer:64}")
+    private int bufferFrames = 64;
+
+    @Value("${game.stream.writer-threads:4}")
+    private int writerThreads = 4;
+
+    private ExecutorService writers;
+    private ScheduledFuture<?> heartbeat;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger n = new AtomicInteger();
+        writers = Executors.newFixedThreadPool(Math.max(1, writerThreads), r -> {
+            Thread t = new Thread(r, "sse-writer-" + n.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+        gameService.registerTableListener(tableId -> streams.computeIfAbsent(tableId, TableStream::new));
+        if (heartbeatSeconds > 0) {
+            heartbeat = scheduler.scheduleAtFixedRate(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (heartbeat != null) heartbeat.cancel(false);
+        if (writers != null) writers.shutdownNow();
+        for (TableStream stream : streams.values()) {
+            for (Subscriber subscriber : stream.subscribers) subscriber.emitter.complete();
+        }
+    }
+
+    /**
+     * A new spectator of {@code tableId}; it gets the current round right away, then every event as it happens.
+     */
+    public ResponseBodyEmitter subscribe(String tableId) {
+        return subscribe(tableId, new ResponseBodyEmitter(NO_TIMEOUT));
+    }
+
+    ResponseBodyEmitter subscribe(String tableId, ResponseBodyEmitter emitter) {
+        TableStream stream = streams.computeIfAbsent(gameService.table(tableId).getId(), TableStream::new);
+        Subscriber subscriber = new Subscriber(stream, emitter);
+        Runnable unsubscribe = () -> stream.subscribers.remove(subscriber);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+        stream.subscribers.add(subscriber);
+
+        // something is written right away either way, so the response is committed and the client sees the stream open
+        RoundInfo round = gameService.getCurrentRoundSnapshot(stream.tableId);
+        subscriber.offer(round == null ? HEARTBEAT
+                : stream.frame("ROUND_OPENED", new RoundOpened(round.roundId(), round.bettingClosesAt().toEpochMilli())));
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        int count = 0;
+        for (TableStream stream : streams.values()) count += stream.subscribers.size();
+        return count;
+    }
+
+    private void heartbeat() {
+        try {
+            for (TableStream stream : streams.values()) {
+                if (!stream.subscribers.isEmpty()) stream.publish(HEARTBEAT);
+            }
+        } catch (RuntimeException e) {
+            // an exception would cancel the fixed-rate task for good
+            log.warn("Spectator heartbeat failed", e);
+        }
+    }
+
+    /**
+     * One spectator's emitter and the frames not yet written to it. Whoever queues a frame while no write is
+     * running starts one; it writes until the queue is empty, so frames go out in order.
+     */
+    private final class Subscriber {
+        final TableStream stream;
+        final ResponseBodyEmitter emitter;
+        private final ArrayDeque<byte[]> queue = new ArrayDeque<>();
+        /** Guarded by {@code queue}. */
+        private boolean writing, dropped;
+
+        Subscriber(TableStream stream, ResponseBodyEmitter emitter) {
+            this.stream = stream;
+            this.emitter = emitter;
+        }
+
+        void offer(byte[] frame) {
+            boolean lagging, idle;
+            synchronized (queue) {
+                if (dropped) return;
+                lagging = queue.size() >= bufferFrames;
+                if (lagging) {
+                    // a full buffer behind: completed once the write in progress, if any, returns
+                    dropped = true;
+                    queue.clear();
+                } else {
+                    queue.addLast(frame);
+                }
+                idle = !writing;
+                writing = true;
+            }
+            if (lagging) {
+                stream.subscribers.remove(this);
+                log.debug("Dropped a spectator of table {} that fell {} frames behind", stream.tableId, bufferFrames);
+            }
+            if (idle) start();
+        }
+
+        private void start() {
+            try {
+                writers.execute(this::write);
+            } catch (RejectedExecutionException e) {
+                // shutting down, the emitter is completed there
+            }
+        }
+
+        private void write() {
+            for (;;) {
+                byte[] frame;
+                synchronized (queue) {
+                    frame = queue.pollFirst();
+                    if (frame == null && !dropped) {
+                        writing = false;
+                        return;
+                    }
+                }
+                if (frame == null) {
+                    emitter.complete();
+                    return;
+                }
+                try {
+                    emitter.send(frame);
+                } catch (IOException | IllegalStateException e) {
+                    // the client is gone; the container completes the emitter
+                    synchronized (queue) {
+                        dropped = true;
+                        queue.clear();
+                    }
+                    stream.subscribers.remove(this);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Spectators and event encoding of one table.
+     */
+    private final class TableStream implements GameListener {
+        final String tableId;
+        final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+        TableStream(String tableId) { this.tableId = tableId; }
+
+        @Override
+        public void onRoundOpened(long roundId, long closesAtMs) {
+            if (!subscribers.isEmpty()) publish(frame("ROUND_OPENED", new RoundOpened(roundId, closesAtMs)));
+        }
+
+        @Override
+        public void onRoundSettled(long roundId, int winningNumber) {
+            if (!subscribers.isEmpty()) publish(frame("ROUND_SETTLED", new RoundSettled(roundId, winningNumber)));
+        }
+
+        @Override
+        public void onWinnersAnnounced(long roundId, List<WinnerInfo> winners) {
+            if (subscribers.isEmpty()) return;
+            var payload = winners.stream().map(w -> new Winner(w.getNickname(), w.getWinnings())).toList();
+            publish(frame("WINNERS", new Winners(roundId, payload)));
+        }
+
+        @Override
+        public void onPlayerResult(long roundId, String nickname, long payoutCents) {
+        }
+
+        @Override
+        public void onPlayersLost(long roundId, List<String> nicknames) {
+        }
+
+        @Override
+        public void onPoolStats(long roundId, int[] counts, long[] stakeCents) {
+            if (subscribers.isEmpty()) return;
+            BigDecimal[] stakes = new BigDecimal[stakeCents.length];
+            for (int i = 0; i < stakes.length; i++) stakes[i] = Money.toDecimal(stakeCents[i]);
+            publish(frame("POOL_STATS", new PoolStats(roundId, counts, stakes)));
+        }
+
+        void publish(byte[] frame) {
+            for (Subscriber subscriber : subscribers) subscriber.offer(frame);
+        }
+
+        byte[] frame(String event, Object payload) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+            out.writeBytes(("event: " + event + "\ndata: ").getBytes(StandardCharsets.US_ASCII));
+            try {
+                out.writeBytes(mapper.writeValueAsBytes(payload));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+            out.writeBytes(new byte[]{'\n', '\n'});
+            return out.toByteArray();
+        }
+    }
+
+    record RoundOpened(long roundId, long closesAtMs) {}
+    record RoundSettled(long roundId, int winningNumber) {}
+    record Winners(long roundId, List<Winner> winners) {}
+    record Winner(String nickname, BigDecimal winnings) {}
+    record PoolStats(long roundId, int[] counts, BigDecimal[] stakes) {}
+}
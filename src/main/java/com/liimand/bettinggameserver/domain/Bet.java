@@ -12,5 +12,9 @@ import java.math.BigDecimal;
 public class Bet {
     private String nickname;
     private int number;
-    private BigDecimal amount;
+    private long amountCents;
+
+    public Bet(String nickname, int number, BigDecimal amount) {
+        this(nickname, number, amount == null ? 0 : Money.toMinorUnits(amount));
+    }
 }
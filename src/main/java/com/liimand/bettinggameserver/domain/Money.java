@@ -0,0 +1,45 @@
+package com.liimand.bettinggameserver.domain;
+
+import java.math.BigDecimal;
+
+/**
+ * Amounts are carried internally as {@code long} minor units (cents) and only turned into {@link BigDecimal}
+ * at the JSON edges.
+ */
+public final class Money {
+    public static final int SCALE = 2;
+    private static final int MAX_INTEGER_DIGITS = 15;
+
+    private Money() {}
+
+    public static boolean isRepresentable(BigDecimal amount) {
+        BigDecimal stripped = amount.stripTrailingZeros();
+        return stripped.scale() <= SCALE && stripped.precision() - stripped.scale() <= MAX_INTEGER_DIGITS;
+    }
+
+    /**
+     * @throws ArithmeticException if the amount has more than two decimals or does not fit into a long
+     */
+    public static long toMinorUnits(BigDecimal amount) {
+        return amount.movePointRight(SCALE).longValueExact();
+    }
+
+    /**
+     * Like {@link #toMinorUnits(BigDecimal)}, but yields 0, an invalid stake, for missing or unrepresentable amounts.
+     */
+    public static long toMinorUnitsOrZero(BigDecimal amount) {
+        return (amount != null && isRepresentable(amount)) ? toMinorUnits(amount) : 0;
+    }
+
+    public static BigDecimal toDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * {@code minorUnits * tenths / 10} rounded half-up to whole minor units, the same result as
+     * {@code amount.multiply(tenths / 10).setScale(2, HALF_UP)} for non-negative amounts.
+     */
+    public static long multiplyTenths(long minorUnits, long tenths) {
+        return (Math.multiplyExact(minorUnits, tenths) + 5) / 10;
+    }
+}
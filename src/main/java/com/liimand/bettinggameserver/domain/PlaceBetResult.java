@@ -4,5 +4,7 @@ public enum PlaceBetResult {
     ACCEPTED,
     CLOSED,
     DUPLICATE,
-    INVALID
+    INVALID,
+    /** Refused by the WebSocket rate limiter before it reached the table. */
+    RATE_LIMITED
 }
@@ -2,5 +2,6 @@ package com.liimand.bettinggameserver.domain;
 
 public enum RoundState {
     OPEN,
+    SETTLING,
     CLOSED
 }
@@ -9,5 +9,13 @@ import java.math.BigDecimal;
 @AllArgsConstructor
 public class WinnerInfo {
     private String nickname;
-    private BigDecimal winnings;
+    private long winningsCents;
+
+    public WinnerInfo(String nickname, BigDecimal winnings) {
+        this(nickname, Money.toMinorUnits(winnings));
+    }
+
+    public BigDecimal getWinnings() {
+        return Money.toDecimal(winningsCents);
+    }
 }
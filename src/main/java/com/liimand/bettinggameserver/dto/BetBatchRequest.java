@@ -0,0 +1,7 @@
+package com.liimand.bettinggameserver.dto;
+
+import java.util.List;
+
+public record BetBatchRequest(
+        List<BetRequest> bets
+) {}
@@ -0,0 +1,9 @@
+package com.liimand.bettinggameserver.dto;
+
+import com.liimand.bettinggameserver.domain.PlaceBetResult;
+
+import java.util.List;
+
+public record BetBatchResultDto(
+        List<PlaceBetResult> results
+) {}
@@ -7,5 +7,6 @@ import java.math.BigDecimal;
 public record BetRequest(
         @NotBlank String nickname,
         @Min(1) @Max(10) int number,
-        @NotNull @DecimalMin(value = "0.01") BigDecimal amount
+        @NotNull @DecimalMin(value = "0.01") @Digits(integer = 15, fraction = 2) BigDecimal amount,
+        @Size(max = 128) String idempotencyKey
 ) {}
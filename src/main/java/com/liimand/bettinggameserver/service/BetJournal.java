@@ -0,0 +1,40 @@
+package com.liimand.bettinggameserver.service;
+
+import com.liimand.bettinggameserver.domain.Bet;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Write-ahead log of round openings, accepted bets and settlements. Appends are called on the betting path and
+ * must not block on I/O; {@link #recover()} returns what was on disk when the journal was opened.
+ */
+public interface BetJournal extends AutoCloseable {
+
+    BetJournal NOOP = new BetJournal() {
+        @Override public void roundOpened(String tableId, long roundId, long closesAtMs) {}
+        @Override public void betAccepted(String tableId, long roundId, Bet bet) {}
+        @Override public void roundSettled(String tableId, long roundId, int winningNumber) {}
+    };
+
+    void roundOpened(String tableId, long roundId, long closesAtMs);
+
+    void betAccepted(String tableId, long roundId, Bet bet);
+
+    void roundSettled(String tableId, long roundId, int winningNumber);
+
+    default Recovery recover() {
+        return new Recovery(Map.of(), List.of());
+    }
+
+    @Override
+    default void close() {}
+
+    /**
+     * @param lastRoundIds last round id seen per table
+     * @param openRounds   rounds that were opened but never settled, at most one per table
+     */
+    record Recovery(Map<String, Long> lastRoundIds, List<OpenRound> openRounds) {}
+
+    record OpenRound(String tableId, long roundId, long closesAtMs, List<Bet> bets) {}
+}
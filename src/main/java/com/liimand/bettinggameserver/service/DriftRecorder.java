@@ -0,0 +1,22 @@
+package com.liimand.bettinggameserver.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+final class DriftRecorder {
+    private final LongAdder fired = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    void record(long deadlineNanos) {
+        long drift = Math.max(0, System.nanoTime() - deadlineNanos);
+        fired.increment();
+        totalNanos.add(drift);
+        if (drift > maxNanos.get()) maxNanos.accumulateAndGet(drift, Math::max);
+    }
+
+    RoundTimer.DriftStats snapshot() {
+        long n = fired.sum();
+        return new RoundTimer.DriftStats(n, n == 0 ? 0 : totalNanos.sum() / n / 1_000, maxNanos.get() / 1_000);
+    }
+}
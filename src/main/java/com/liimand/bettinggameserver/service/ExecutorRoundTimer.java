@@ -0,0 +1,32 @@
+package com.liimand.bettinggameserver.service;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round timer on a {@link ScheduledExecutorService}; every schedule and cancel goes through its delay heap.
+ */
+public class ExecutorRoundTimer implements RoundTimer {
+    private final ScheduledExecutorService scheduler;
+    private final DriftRecorder drift = new DriftRecorder();
+
+    public ExecutorRoundTimer(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(delay);
+        ScheduledFuture<?> future = scheduler.schedule(() -> {
+            drift.record(deadline);
+            task.run();
+        }, delay, unit);
+        return () -> future.cancel(false);
+    }
+
+    @Override
+    public DriftStats drift() {
+        return drift.snapshot();
+    }
+}
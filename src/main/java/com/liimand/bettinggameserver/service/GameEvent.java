@@ -0,0 +1,54 @@
+package com.liimand.bettinggameserver.service;
+
+import com.liimand.bettinggameserver.domain.WinnerInfo;
+
+import java.util.List;
+
+sealed interface GameEvent {
+    long roundId();
+
+    void dispatch(GameListener l);
+
+    /**
+     * Whether the bus may drop this event when its consumer falls behind. Settlement events never are.
+     */
+    default boolean droppable() { return false; }
+
+    record RoundOpened(long roundId, long closesAtMs) implements GameEvent {
+        @Override
+        public void dispatch(GameListener l) { l.onRoundOpened(roundId, closesAtMs); }
+
+        @Override
+        public boolean droppable() { return true; }
+    }
+
+    record PlayerResults(long roundId, List<WinnerInfo> winners) implements GameEvent {
+        @Override
+        public void dispatch(GameListener l) {
+            for (WinnerInfo w : winners) l.onPlayerResult(roundId, w.getNickname(), w.getWinningsCents());
+        }
+    }
+
+    record PlayersLost(long roundId, List<String> nicknames) implements GameEvent {
+        @Override
+        public void dispatch(GameListener l) { l.onPlayersLost(roundId, nicknames); }
+    }
+
+    record PoolStats(long roundId, int[] counts, long[] stakeCents) implements GameEvent {
+        @Override
+        public void dispatch(GameListener l) { l.onPoolStats(roundId, counts, stakeCents); }
+
+        @Override
+        public boolean droppable() { return true; }
+    }
+
+    record WinnersAnnounced(long roundId, List<WinnerInfo> winners) implements GameEvent {
+        @Override
+        public void dispatch(GameListener l) { l.onWinnersAnnounced(roundId, winners); }
+    }
+
+    record RoundSettled(long roundId, int winningNumber) implements GameEvent {
+        @Override
+        public void dispatch(GameListener l) { l.onRoundSettled(roundId, winningNumber); }
+    }
+}
@@ -0,0 +1,162 @@
+package com.liimand.bettinggameserver.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands game events from the engine to listeners on dedicated consumer threads. Events published with the same
+ * partition key land on the same consumer and keep their order. Only droppable events (pool stats, round opened)
+ * count against a consumer's capacity and are subject to the overflow policy; settlement events are always
+ * queued without blocking, so a slow listener can neither lose a result nor stall closing a round.
+ */
+@Slf4j
+@Component
+public class GameEventBus {
+
+    public enum OverflowPolicy { BLOCK, DROP_OLDEST, DROP_NEWEST }
+
+    private final OverflowPolicy overflow;
+    private final Lane[] lanes;
+    private final AtomicLong dropped = new AtomicLong();
+
+    public GameEventBus(int consumers, int capacity, OverflowPolicy overflow) {
+        this(consumers, capacity, overflow, GameMetrics.noop());
+    }
+
+    @Autowired
+    public GameEventBus(@Value("${game.events.consumers:1}") int consumers,
+                        @Value("${game.events.capacity:8192}") int capacity,
+                        @Value("${game.events.overflow:BLOCK}") OverflowPolicy overflow,
+                        GameMetrics metrics) {
+        this.overflow = overflow;
+        this.lanes = new Lane[Math.max(1, consumers)];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane(i, capacity, metrics);
+            lanes[i].start();
+        }
+        metrics.eventBus(this);
+    }
+
+    void publish(int partition, List<GameListener> listeners, GameEvent event) {
+        Lane lane = lanes[Math.floorMod(partition, lanes.length)];
+        Envelope env = new Envelope(listeners, event);
+        if (!event.droppable()) {
+            lane.queue.add(env);
+            return;
+        }
+        switch (overflow) {
+            case BLOCK -> {
+                try {
+                    lane.room.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped.incrementAndGet();
+                    return;
+                }
+            }
+            case DROP_NEWEST -> {
+                if (!lane.room.tryAcquire()) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+            }
+            case DROP_OLDEST -> {
+                // A removed envelope hands its slot over to the new one
+                while (!lane.room.tryAcquire()) {
+                    if (lane.removeOldestDroppable()) {
+                        dropped.incrementAndGet();
+                        break;
+                    }
+                }
+            }
+        }
+        lane.queue.add(env);
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public int getBacklog() {
+        int total = 0;
+        for (Lane lane : lanes) total += lane.queue.size();
+        return total;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Lane lane : lanes) lane.interrupt();
+    }
+
+    private record Envelope(List<GameListener> listeners, GameEvent event) {
+        boolean droppable() {
+            return event.droppable();
+        }
+
+        void dispatch(GameMetrics metrics) {
+            long start = System.nanoTime();
+            for (GameListener l : listeners) {
+                try {
+                    event.dispatch(l);
+                } catch (RuntimeException e) {
+                    log.warn("Listener {} failed on {}", l, event, e);
+                }
+            }
+            metrics.eventDispatched(event, System.nanoTime() - start);
+        }
+    }
+
+    private static final class Lane extends Thread {
+        final BlockingQueue<Envelope> queue = new LinkedBlockingQueue<>();
+        /** Free slots for droppable events; a slot is taken on publish and given back once the event is taken off. */
+        final Semaphore room;
+        final GameMetrics metrics;
+
+        Lane(int index, int capacity, GameMetrics metrics) {
+            super("game-events-" + index);
+            setDaemon(true);
+            this.room = new Semaphore(Math.max(1, capacity));
+            this.metrics = metrics;
+        }
+
+        boolean removeOldestDroppable() {
+            for (Envelope env : queue) {
+                if (env.droppable()) return queue.remove(env);
+            }
+            return false;
+        }
+
+        void take(Envelope env) {
+            if (env.droppable()) room.release();
+            env.dispatch(metrics);
+        }
+
+        @Override
+        public void run() {
+            List<Envelope> batch = new ArrayList<>();
+            while (!isInterrupted()) {
+                try {
+                    Envelope first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) continue;
+                    take(first);
+                    queue.drainTo(batch);
+                    for (Envelope env : batch) take(env);
+                    batch.clear();
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+}
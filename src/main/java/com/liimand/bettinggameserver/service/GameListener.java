@@ -2,12 +2,20 @@ package com.liimand.bettinggameserver.service;
 
 import com.liimand.bettinggameserver.domain.WinnerInfo;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 public interface GameListener {
     void onRoundOpened(long roundId, long closesAtMs);
     void onRoundSettled(long roundId, int winningNumber);
     void onWinnersAnnounced(long roundId, List<WinnerInfo> winners);
-    void onPlayerResult(long roundId, String nickname, BigDecimal payout);
+    void onPlayerResult(long roundId, String nickname, long payoutCents);
+
+    default void onPlayersLost(long roundId, List<String> nicknames) {
+        for (String nickname : nicknames) onPlayerResult(roundId, nickname, 0);
+    }
+
+    /**
+     * Bet count and stake per number of the open round, index {@code n - 1} for number {@code n}.
+     */
+    default void onPoolStats(long roundId, int[] counts, long[] stakeCents) {}
 }
@@ -0,0 +1,100 @@
+package com.liimand.bettinggameserver.service;
+
+import com.liimand.bettinggameserver.domain.PlaceBetResult;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of the engine hot paths. Meters are built up front, or once per event type, so recording never
+ * goes through the registry.
+ */
+@Component
+public class GameMetrics {
+    private final MeterRegistry registry;
+    private final Timer[] bets;
+    private final Timer settle;
+    private final Timer closeLag;
+    private final Timer broadcast;
+    private final DistributionSummary betsPerRound;
+    private final ConcurrentMap<Class<?>, Timer> dispatch = new ConcurrentHashMap<>();
+
+    public GameMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        PlaceBetResult[] results = PlaceBetResult.values();
+        this.bets = new Timer[results.length];
+        for (PlaceBetResult r : results) {
+            bets[r.ordinal()] = Timer.builder("game.bets")
+                    .description("Time to accept or reject a bet")
+                    .tag("result", r.name())
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+        this.settle = Timer.builder("game.round.settle")
+                .description("Time to close a round, pick winners and publish its events")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.closeLag = Timer.builder("game.round.close.lag")
+                .description("Actual close time minus bettingClosesAt")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.broadcast = Timer.builder("game.ws.broadcast")
+                .description("Time until every shard of a broadcast has been sent")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.betsPerRound = DistributionSummary.builder("game.round.bets")
+                .description("Bets per settled round")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Meters that record into nothing, for code constructed outside the Spring context.
+     */
+    public static GameMetrics noop() {
+        return new GameMetrics(new CompositeMeterRegistry());
+    }
+
+    public void betPlaced(PlaceBetResult result, long nanos) {
+        bets[result.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void roundSettled(long settleNanos, int betCount, long closeLagNanos) {
+        settle.record(settleNanos, TimeUnit.NANOSECONDS);
+        betsPerRound.record(betCount);
+        closeLag.record(Math.max(0, closeLagNanos), TimeUnit.NANOSECONDS);
+    }
+
+    public void broadcastSent(long nanos) {
+        broadcast.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void eventBus(GameEventBus bus) {
+        FunctionCounter.builder("game.events.dropped", bus, GameEventBus::getDroppedCount)
+                .description("Droppable events discarded because a consumer fell behind")
+                .register(registry);
+        Gauge.builder("game.events.backlog", bus, GameEventBus::getBacklog)
+                .description("Events waiting for a consumer")
+                .register(registry);
+    }
+
+    void eventDispatched(GameEvent event, long nanos) {
+        Timer timer = dispatch.get(event.getClass());
+        if (timer == null) {
+            timer = dispatch.computeIfAbsent(event.getClass(), type -> Timer.builder("game.events.dispatch")
+                    .description("Time to hand one event to all listeners of a table")
+                    .tag("event", type.getSimpleName())
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -5,26 +5,39 @@ import com.liimand.bettinggameserver.util.WinningNumberGenerator;
 import jakarta.annotation.PostConstruct;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.nio.file.Path;
 import java.time.Duration;
-import java.time.Instant;
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.AtomicReference;
-
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Registry of game tables. The {@value #DEFAULT_TABLE} table always exists and the table-less methods work on it;
+ * other tables are only created by {@link #createTable} and {@link #startNewRound(String)}, up to
+ * {@code game.tables.max}, past which they throw {@link TableLimitException}. Every other lookup of an unknown table
+ * throws {@link UnknownTableException}.
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor
-public class GameService {
-    private static final BigDecimal PAYOUT_MULTIPLIER = new BigDecimal("9.9");
+public class GameService implements SmartLifecycle {
+    public static final String DEFAULT_TABLE = "default";
+    private static final Pattern TABLE_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
 
-    private final ScheduledExecutorService scheduler;
+    private final RoundTimer timer;
     private final WinningNumberGenerator rng;
+    private final GameEventBus eventBus;
+    private final BetJournal journal;
+    private final GameMetrics metrics;
+    private final PlayerRegistry players;
+    private final RoundArchive archive;
 
     @Value("${game.betting-window-seconds}")
     private long bettingWindowSeconds;
@@ -35,106 +48,181 @@ public class GameService {
     @Value("${game.repeat-delay-ms}")
     private long repeatDelayMs;
 
-    private Duration bettingWindow;
+    @Getter
+    @Value("${game.bets.max-batch-size:1000}")
+    private int maxBatchSize;
+
+    @Value("${game.tables.max:10000}")
+    private int maxTables;
 
-    private final AtomicLong roundSeq = new AtomicLong(0);
-    private final AtomicReference<RoundInfo> roundRef = new AtomicReference<>();
+    @Value("${game.settlements.history:1024}")
+    private int historySize;
 
-    private volatile RoundBets currentBets;
-    @Getter
-    private volatile Settlement lastSettlement;
+    @Value("${game.bets.idempotency-keys:65536}")
+    private int idempotencyKeys;
 
-    private final List<GameListener> listeners = new CopyOnWriteArrayList<>();
+    private GameTable.Settings settings;
+    private volatile boolean running;
+
+    private final ConcurrentMap<String, GameTable> tables = new ConcurrentHashMap<>();
+    private final List<Function<String, GameListener>> tableListeners = new CopyOnWriteArrayList<>();
 
     @PostConstruct
     void init() {
-        this.bettingWindow = Duration.ofSeconds(bettingWindowSeconds);
+        this.settings = new GameTable.Settings(Duration.ofSeconds(bettingWindowSeconds), autoRepeat, repeatDelayMs, historySize,
+                idempotencyKeys);
+        createTable(DEFAULT_TABLE);
     }
 
-    public void registerListener(GameListener l) {
-        if (l != null) listeners.add(l);
+    /**
+     * Replays the journal in the first lifecycle phase: after every bean, and so every listener, is set up, and
+     * before the web server and the Netty socket start taking bets.
+     */
+    @Override
+    public void start() {
+        recover();
+        running = true;
     }
 
-    public synchronized RoundInfo startNewRound() {
-        long id = roundSeq.incrementAndGet();
-        Instant now = Instant.now();
-        Instant closesAt = now.plus(bettingWindow);
-
-        RoundInfo open = new RoundInfo(id, RoundState.OPEN, now, closesAt, null);
-        roundRef.set(open);
-        currentBets = new RoundBets(id);
-        lastSettlement = null;
+    @Override
+    public void stop() {
+        running = false;
+    }
 
-        listeners.forEach(l -> l.onRoundOpened(id, closesAt.toEpochMilli()));
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
 
-        scheduler.schedule(this::closeAndSettle, bettingWindow.toMillis(), TimeUnit.MILLISECONDS);
-        return open;
+    @Override
+    public int getPhase() {
+        return Integer.MIN_VALUE;
     }
 
-    public RoundInfo getCurrentRoundSnapshot() {
-        return roundRef.get();
+    /**
+     * Round ids continue where they stopped and rounds that were open at the crash are reopened with their
+     * accepted bets.
+     */
+    void recover() {
+        BetJournal.Recovery recovery = journal.recover();
+        recovery.lastRoundIds().forEach((tableId, roundId) -> createTable(tableId).resumeAfter(roundId));
+        for (BetJournal.OpenRound round : recovery.openRounds()) {
+            createTable(round.tableId()).recover(round);
+            log.info("Recovered round {} of table {} with {} bets", round.roundId(), round.tableId(), round.bets().size());
+        }
     }
 
-    public PlaceBetResult placeBet(Bet bet) {
-        if (bet == null || bet.getNickname() == null || bet.getNickname().isBlank()) return PlaceBetResult.INVALID;
-        if (bet.getNumber() < 1 || bet.getNumber() > 10) return PlaceBetResult.INVALID;
-        if (bet.getAmount() == null || bet.getAmount().compareTo(BigDecimal.ZERO) <= 0) return PlaceBetResult.INVALID;
+    public GameTable table(String tableId) {
+        GameTable table = tableId == null ? null : tables.get(tableId);
+        if (table == null) throw new UnknownTableException(tableId);
+        return table;
+    }
 
-        RoundInfo r = roundRef.get();
-        if (r == null || r.state() != RoundState.OPEN || Instant.now().isAfter(r.bettingClosesAt())) {
-            return PlaceBetResult.CLOSED;
-        }
-        if (currentBets == null || currentBets.roundId != r.roundId()) {
-            return PlaceBetResult.CLOSED;
+    /**
+     * The table with this id, created if it doesn't exist yet.
+     */
+    public GameTable createTable(String tableId) {
+        if (tableId == null) throw new UnknownTableException(null);
+        GameTable table = tables.get(tableId);
+        if (table != null) return table;
+        if (!TABLE_ID.matcher(tableId).matches()) throw new UnknownTableException(tableId);
+        synchronized (tables) {
+            table = tables.get(tableId);
+            if (table != null) return table;
+            if (tables.size() >= maxTables) throw new TableLimitException(tableId, maxTables);
+            table = new GameTable(tableId, settings, timer, rng, eventBus, journal, metrics, players, archive);
+            // archived round files are never replaced, so ids continue past them even without a journal
+            table.resumeAfter(archive.lastRoundId(tableId));
+            for (Function<String, GameListener> factory : tableListeners) {
+                table.registerListener(factory.apply(tableId));
+            }
+            tables.put(tableId, table);
+            return table;
         }
+    }
 
-        Bet copy = new Bet(bet.getNickname().trim(), bet.getNumber(), bet.getAmount());
-        Bet prev = currentBets.bets.putIfAbsent(copy.getNickname(), copy);
-        return (prev == null) ? PlaceBetResult.ACCEPTED : PlaceBetResult.DUPLICATE;
-    }
-
-    private synchronized void closeAndSettle() {
-        RoundInfo current = roundRef.get();
-        if (current == null || current.state() == RoundState.CLOSED) return;
-
-        int winning = rng.next1to10();
-        RoundInfo closed = new RoundInfo(
-                current.roundId(), RoundState.CLOSED,
-                current.openedAt(), current.bettingClosesAt(),
-                winning
-        );
-        roundRef.set(closed);
-
-        List<WinnerInfo> winners = new ArrayList<>();
-        if (currentBets != null && currentBets.roundId == current.roundId()) {
-            for (Bet b : currentBets.bets.values()) {
-                BigDecimal payout = BigDecimal.ZERO.setScale(2, RoundingMode.HALF_UP);
-                if (b.getNumber() == winning) {
-                    payout = b.getAmount().multiply(PAYOUT_MULTIPLIER).setScale(2, RoundingMode.HALF_UP);
-                    winners.add(new WinnerInfo(b.getNickname(), payout));
-                }
-                for (GameListener l : listeners) {
-                    l.onPlayerResult(current.roundId(), b.getNickname(), payout);
-                }
+    public Collection<GameTable> tables() {
+        return tables.values();
+    }
+
+    /**
+     * Registers the listener the factory creates for every existing and every future table.
+     */
+    public void registerTableListener(Function<String, GameListener> factory) {
+        synchronized (tables) {
+            tableListeners.add(factory);
+            for (GameTable table : tables.values()) {
+                table.registerListener(factory.apply(table.getId()));
             }
         }
+    }
 
-        lastSettlement = new Settlement(current.roundId(), winning, winners);
+    public void registerListener(GameListener l) {
+        table(DEFAULT_TABLE).registerListener(l);
+    }
 
-        for (GameListener l : listeners) {
-            l.onWinnersAnnounced(current.roundId(), winners);
-            l.onRoundSettled(current.roundId(), winning);
-        }
+    public RoundInfo startNewRound() {
+        return startNewRound(DEFAULT_TABLE);
+    }
 
-        if (autoRepeat) {
-            scheduler.schedule(this::startNewRound, repeatDelayMs, TimeUnit.MILLISECONDS);
-        }
+    public RoundInfo startNewRound(String tableId) {
+        return createTable(tableId).startNewRound();
     }
 
+    public RoundInfo getCurrentRoundSnapshot() {
+        return getCurrentRoundSnapshot(DEFAULT_TABLE);
+    }
+
+    public RoundInfo getCurrentRoundSnapshot(String tableId) {
+        return table(tableId).getCurrentRoundSnapshot();
+    }
+
+    public PlaceBetResult placeBet(Bet bet) {
+        return placeBet(DEFAULT_TABLE, bet);
+    }
+
+    public PlaceBetResult placeBet(String tableId, Bet bet) {
+        return table(tableId).placeBet(bet);
+    }
+
+    public PlaceBetResult placeBet(String tableId, Bet bet, String idempotencyKey) {
+        return table(tableId).placeBet(bet, idempotencyKey);
+    }
+
+    public List<PlaceBetResult> placeBets(List<Bet> batch) {
+        return placeBets(DEFAULT_TABLE, batch);
+    }
+
+    public List<PlaceBetResult> placeBets(String tableId, List<Bet> batch) {
+        return table(tableId).placeBets(batch);
+    }
+
+    public Versioned<RoundInfo> getVersionedRound(String tableId) {
+        return table(tableId).getVersionedRound();
+    }
+
+    public Versioned<Settlement> getVersionedSettlement(String tableId) {
+        return table(tableId).getVersionedSettlement();
+    }
+
+    /**
+     * The archived bets and payouts of a settled round, or {@code null} if it isn't archived. Rounds of tables not
+     * created since a restart are found too.
+     */
+    public Path getArchivedRound(String tableId, long roundId) {
+        if (tableId == null || !TABLE_ID.matcher(tableId).matches()) throw new UnknownTableException(tableId);
+        return archive.find(tableId, roundId);
+    }
+
+    public Settlement getLastSettlement() {
+        return getLastSettlement(DEFAULT_TABLE);
+    }
+
+    public Settlement getLastSettlement(String tableId) {
+        return table(tableId).getLastSettlement();
+    }
 
-    private static final class RoundBets {
-        final long roundId;
-        final ConcurrentMap<String, Bet> bets = new ConcurrentHashMap<>();
-        RoundBets(long roundId) { this.roundId = roundId; }
+    public List<SettlementHistory.Entry> getSettlements(String tableId, Long fromRound, int limit) {
+        return table(tableId).getHistory().page(fromRound, limit);
     }
 }
@@ -0,0 +1,344 @@
+package com.liimand.bettinggameserver.service;
+
+import com.liimand.bettinggameserver.domain.*;
+import com.liimand.bettinggameserver.util.WinningNumberGenerator;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * One independent game: its own round sequence, betting window, bets, settlement and listeners.
+ * <p>
+ * The current round and its bets sit together in one {@link AtomicReference} and move
+ * {@code OPEN → SETTLING → CLOSED} by compare-and-set; nothing takes a lock. Whoever wins the
+ * {@code OPEN → SETTLING} CAS seals the round's {@link RoundBets}: bets that got in before the seal are
+ * settled, bets racing it are answered {@link PlaceBetResult#CLOSED}.
+ */
+public class GameTable {
+    private static final long PAYOUT_TENTHS = 99;
+
+    @Getter
+    private final String id;
+    private final Settings settings;
+    private final RoundTimer timer;
+    private final WinningNumberGenerator rng;
+    private final GameEventBus eventBus;
+    private final BetJournal journal;
+    private final GameMetrics metrics;
+    private final PlayerRegistry players;
+    private final RoundArchive archive;
+
+    private final AtomicLong roundSeq = new AtomicLong(0);
+    private final AtomicReference<Round> roundRef = new AtomicReference<>();
+
+    private volatile Versioned<Settlement> lastSettlement;
+    @Getter
+    private final SettlementHistory history;
+
+    private final List<GameListener> listeners = new CopyOnWriteArrayList<>();
+
+    GameTable(String id, Settings settings, RoundTimer timer,
+              WinningNumberGenerator rng, GameEventBus eventBus, BetJournal journal, GameMetrics metrics,
+              PlayerRegistry players) {
+        this(id, settings, timer, rng, eventBus, journal, metrics, players, RoundArchive.NOOP);
+    }
+
+    GameTable(String id, Settings settings, RoundTimer timer,
+              WinningNumberGenerator rng, GameEventBus eventBus, BetJournal journal, GameMetrics metrics,
+              PlayerRegistry players, RoundArchive archive) {
+        this.id = id;
+        this.settings = settings;
+        this.timer = timer;
+        this.rng = rng;
+        this.eventBus = eventBus;
+        this.journal = journal;
+        this.metrics = metrics;
+        this.players = players;
+        this.archive = archive;
+        this.history = new SettlementHistory(settings.historySize());
+    }
+
+    public void registerListener(GameListener l) {
+        if (l != null) listeners.add(l);
+    }
+
+    public RoundInfo startNewRound() {
+        long id = roundSeq.incrementAndGet();
+        Instant now = Instant.now();
+        Instant closesAt = now.plus(settings.bettingWindow());
+
+        Round next = new Round(new RoundInfo(id, RoundState.OPEN, now, closesAt, null), new RoundBets(id, players.capacity()),
+                new IdempotencyKeys(settings.idempotencyKeys()));
+        if (!install(next)) return roundRef.get().info;
+        lastSettlement = null;
+
+        journal.roundOpened(this.id, id, closesAt.toEpochMilli());
+        publish(new GameEvent.RoundOpened(id, closesAt.toEpochMilli()));
+
+        scheduleClose(next, settings.bettingWindow().toMillis());
+        return next.info;
+    }
+
+    /**
+     * Restores a round found unsettled in the journal; it closes at its original deadline, or right away if
+     * that has passed.
+     */
+    void recover(BetJournal.OpenRound round) {
+        resumeAfter(round.roundId());
+        RoundBets bets = new RoundBets(round.roundId(), players.capacity());
+        for (Bet bet : round.bets()) {
+            int player = players.acquire(bet.getNickname());
+            if (player >= 0 && !bets.add(player, bet.getNumber(), bet.getAmountCents())) players.release(player);
+        }
+        Instant closesAt = Instant.ofEpochMilli(round.closesAtMs());
+        Round recovered = new Round(new RoundInfo(round.roundId(), RoundState.OPEN,
+                closesAt.minus(settings.bettingWindow()), closesAt, null), bets,
+                new IdempotencyKeys(settings.idempotencyKeys()));
+        if (!install(recovered)) return;
+        lastSettlement = null;
+        scheduleClose(recovered, Math.max(0, round.closesAtMs() - System.currentTimeMillis()));
+    }
+
+    void resumeAfter(long lastRoundId) {
+        roundSeq.accumulateAndGet(lastRoundId, Math::max);
+    }
+
+    /**
+     * Makes {@code next} the current round unless a newer one already is. A replaced round that was still open
+     * is abandoned: its close is cancelled and its bets sealed, so late writers get {@code CLOSED}.
+     */
+    private boolean install(Round next) {
+        Round prev;
+        do {
+            prev = roundRef.get();
+            if (prev != null && prev.info.roundId() >= next.info.roundId()) return false;
+        } while (!roundRef.compareAndSet(prev, next));
+        if (prev != null && prev.info.state() == RoundState.OPEN) {
+            RoundTimer.Timeout close = prev.close;
+            if (close != null) close.cancel();
+            prev.bets.seal();
+            prev.bets.forEach((player, amountCents) -> players.release(player));
+            prev.keys.evict();
+        }
+        return true;
+    }
+
+    private void scheduleClose(Round round, long delayMs) {
+        long roundId = round.info.roundId();
+        round.close = timer.schedule(() -> closeAndSettle(roundId), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    public RoundInfo getCurrentRoundSnapshot() {
+        Round r = roundRef.get();
+        return r == null ? null : r.info;
+    }
+
+    /**
+     * The current round, re-published with a new version on every state change.
+     */
+    public Versioned<RoundInfo> getVersionedRound() {
+        Round r = roundRef.get();
+        return r == null ? null : r.published;
+    }
+
+    public Settlement getLastSettlement() {
+        Versioned<Settlement> s = lastSettlement;
+        return s == null ? null : s.value();
+    }
+
+    public Versioned<Settlement> getVersionedSettlement() {
+        return lastSettlement;
+    }
+
+    public PlaceBetResult placeBet(Bet bet) {
+        return placeBet(roundRef.get(), bet);
+    }
+
+    /**
+     * Places the bet once per {@code idempotencyKey} and player in the current round: a repeated key gets the
+     * result of the first attempt, also while the round is settling. Keys are forgotten once it is settled.
+     */
+    public PlaceBetResult placeBet(Bet bet, String idempotencyKey) {
+        Round r = roundRef.get();
+        if (idempotencyKey == null || r == null || bet == null || bet.getNickname() == null) return placeBet(r, bet);
+        return r.keys.resolve(bet.getNickname().trim() + '\n' + idempotencyKey, () -> placeBet(r, bet));
+    }
+
+    private PlaceBetResult placeBet(Round r, Bet bet) {
+        long start = System.nanoTime();
+        RoundBets bets = openRoundBets(r);
+        PlaceBetResult result;
+        if (bets == null || !bets.enter()) {
+            result = place(null, bet);
+        } else {
+            try {
+                result = place(bets, bet);
+            } finally {
+                bets.exit();
+            }
+        }
+        metrics.betPlaced(result, System.nanoTime() - start);
+        return result;
+    }
+
+    public List<PlaceBetResult> placeBets(List<Bet> batch) {
+        RoundBets bets = openRoundBets(roundRef.get());
+        if (bets != null && !bets.enter()) bets = null;
+        List<PlaceBetResult> results = new ArrayList<>(batch.size());
+        try {
+            for (Bet bet : batch) {
+                long start = System.nanoTime();
+                PlaceBetResult result = place(bets, bet);
+                metrics.betPlaced(result, System.nanoTime() - start);
+                results.add(result);
+            }
+        } finally {
+            if (bets != null) bets.exit();
+        }
+        return results;
+    }
+
+    private PlaceBetResult place(RoundBets bets, Bet bet) {
+        if (!isValid(bet)) return PlaceBetResult.INVALID;
+        if (bets == null) return PlaceBetResult.CLOSED;
+        return accept(bets, bet);
+    }
+
+    private static boolean isValid(Bet bet) {
+        if (bet == null || bet.getNickname() == null || bet.getNickname().isBlank()) return false;
+        if (bet.getNumber() < 1 || bet.getNumber() > 10) return false;
+        return bet.getAmountCents() > 0;
+    }
+
+    private static RoundBets openRoundBets(Round r) {
+        if (r == null || r.info.state() != RoundState.OPEN || Instant.now().isAfter(r.info.bettingClosesAt())) {
+            return null;
+        }
+        return r.bets;
+    }
+
+    /**
+     * Pins the player for the round; the pin is released when the round is settled or abandoned. A full
+     * {@link PlayerRegistry} makes the bet {@code INVALID}.
+     */
+    private PlaceBetResult accept(RoundBets bets, Bet bet) {
+        String nickname = bet.getNickname().trim();
+        int player = players.acquire(nickname);
+        if (player < 0) return PlaceBetResult.INVALID;
+        if (!bets.add(player, bet.getNumber(), bet.getAmountCents())) {
+            players.release(player);
+            return PlaceBetResult.DUPLICATE;
+        }
+        journal.betAccepted(id, bets.roundId,
+                nickname == bet.getNickname() ? bet : new Bet(nickname, bet.getNumber(), bet.getAmountCents()));
+        return PlaceBetResult.ACCEPTED;
+    }
+
+    /**
+     * Settles round {@code roundId} if it is still the open round; a stale or repeated call does nothing. The
+     * settlement is published even if a new round was started meanwhile.
+     */
+    void closeAndSettle(long roundId) {
+        Round current = roundRef.get();
+        if (current == null || current.info.roundId() != roundId || current.info.state() != RoundState.OPEN) return;
+        RoundInfo info = current.info;
+        Round settling = new Round(new RoundInfo(info.roundId(), RoundState.SETTLING,
+                info.openedAt(), info.bettingClosesAt(), null), current.bets, current.keys);
+        if (!roundRef.compareAndSet(current, settling)) return;
+        long start = System.nanoTime();
+        long closeLagNanos = Duration.between(info.bettingClosesAt(), Instant.now()).toNanos();
+
+        RoundBets bets = current.bets;
+        bets.seal();
+        int winning = rng.next1to10();
+        int betCount = bets.size();
+        List<WinnerInfo> winners = new ArrayList<>(bets.count(winning));
+        List<String> losers = new ArrayList<>(betCount - bets.count(winning));
+        for (int n = 1; n <= RoundBets.NUMBERS; n++) {
+            if (n == winning) {
+                bets.forEach(n, (player, amountCents) -> winners.add(
+                        new WinnerInfo(players.nickname(player), Money.multiplyTenths(amountCents, PAYOUT_TENTHS))));
+            } else {
+                bets.forEach(n, (player, amountCents) -> losers.add(players.nickname(player)));
+            }
+        }
+
+        roundRef.compareAndSet(settling, new Round(new RoundInfo(info.roundId(), RoundState.CLOSED,
+                info.openedAt(), info.bettingClosesAt(), winning), bets, current.keys));
+        current.keys.evict();
+
+        Settlement settlement = new Settlement(info.roundId(), winning, winners);
+        lastSettlement = new Versioned<>(settlement);
+        history.add(settlement);
+        journal.roundSettled(id, info.roundId(), winning);
+
+        if (!winners.isEmpty()) publish(new GameEvent.PlayerResults(info.roundId(), winners));
+        if (!losers.isEmpty()) publish(new GameEvent.PlayersLost(info.roundId(), losers));
+        publish(new GameEvent.WinnersAnnounced(info.roundId(), winners));
+        publish(new GameEvent.RoundSettled(info.roundId(), winning));
+        // the archive resolves nicknames on its own thread, so the players stay pinned until it is done
+        archive.archive(id, info, winning, visitor -> {
+            for (int n = 1; n <= RoundBets.NUMBERS; n++) {
+                int number = n;
+                bets.forEach(n, (player, amountCents) -> visitor.bet(players.nickname(player), number, amountCents,
+                        number == winning ? Money.multiplyTenths(amountCents, PAYOUT_TENTHS) : 0));
+            }
+        }, () -> bets.forEach((player, amountCents) -> players.release(player)));
+        metrics.roundSettled(System.nanoTime() - start, betCount, closeLagNanos);
+
+        if (settings.autoRepeat()) {
+            timer.schedule(this::startNewRound, settings.repeatDelayMs(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Publishes the open round's per-number counts and stakes if bets were accepted since the last call. Only
+     * the pool stats ticker calls this; it reads the counters and never touches individual bets. A bet's stake is
+     * added before its bucket slot is claimed, so a published count never lacks its stake, and a stake read
+     * ahead of its count is published again once the size moves.
+     */
+    void publishPoolStats() {
+        Round r = roundRef.get();
+        if (r == null || r.info.state() != RoundState.OPEN) return;
+        int size = r.bets.size();
+        if (size == r.publishedSize) return;
+        r.publishedSize = size;
+        int[] counts = new int[RoundBets.NUMBERS];
+        long[] stakeCents = new long[RoundBets.NUMBERS];
+        for (int n = 1; n <= RoundBets.NUMBERS; n++) {
+            counts[n - 1] = r.bets.count(n);
+            stakeCents[n - 1] = r.bets.stakeCents(n);
+        }
+        publish(new GameEvent.PoolStats(r.info.roundId(), counts, stakeCents));
+    }
+
+    private void publish(GameEvent event) {
+        eventBus.publish(id.hashCode(), listeners, event);
+    }
+
+    private static final class Round {
+        final RoundInfo info;
+        final Versioned<RoundInfo> published;
+        final RoundBets bets;
+        final IdempotencyKeys keys;
+        volatile RoundTimer.Timeout close;
+        int publishedSize;
+
+        Round(RoundInfo info, RoundBets bets, IdempotencyKeys keys) {
+            this.info = info;
+            this.published = new Versioned<>(info);
+            this.bets = bets;
+            this.keys = keys;
+        }
+    }
+
+    record Settings(Duration bettingWindow, boolean autoRepeat, long repeatDelayMs, int historySize,
+                    int idempotencyKeys) {}
+}
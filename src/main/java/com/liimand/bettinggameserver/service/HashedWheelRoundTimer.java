@@ -0,0 +1,145 @@
+package com.liimand.bettinggameserver.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timing wheel. {@link #schedule} only enqueues and {@link Timeout#cancel} only flips a flag, both O(1);
+ * a single ticker thread moves new timeouts into their slot and, once per tick, expires the current slot onto
+ * a pool of worker threads. Tasks fire up to one tick late, which {@link #drift()} reports.
+ */
+@Slf4j
+public class HashedWheelRoundTimer implements RoundTimer {
+    private final long tickNanos;
+    private final ArrayDeque<WheelTimeout>[] wheel;
+    private final int mask;
+    private final Queue<WheelTimeout> pending = new ConcurrentLinkedQueue<>();
+    private final ExecutorService workers;
+    private final Thread ticker;
+    private final long startNanos = System.nanoTime();
+    private final DriftRecorder drift = new DriftRecorder();
+    private volatile boolean running = true;
+
+    @SuppressWarnings("unchecked")
+    public HashedWheelRoundTimer(long tickMs, int wheelSize, int threads) {
+        if (tickMs <= 0 || wheelSize <= 0 || threads <= 0) {
+            throw new IllegalArgumentException("tickMs, wheelSize and threads must be positive");
+        }
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        int size = Integer.highestOneBit(wheelSize - 1) << 1;
+        this.wheel = new ArrayDeque[Math.max(1, size)];
+        for (int i = 0; i < wheel.length; i++) wheel[i] = new ArrayDeque<>();
+        this.mask = wheel.length - 1;
+
+        AtomicInteger workerSeq = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "round-timer-" + workerSeq.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+        this.ticker = new Thread(this::run, "round-timer-tick");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    @Override
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (!running) throw new IllegalStateException("Timer is shut down");
+        WheelTimeout timeout = new WheelTimeout(task, System.nanoTime() + unit.toNanos(Math.max(0, delay)));
+        pending.add(timeout);
+        return timeout;
+    }
+
+    @Override
+    public DriftStats drift() {
+        return drift.snapshot();
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    public void shutdown() {
+        running = false;
+        ticker.interrupt();
+        workers.shutdownNow();
+    }
+
+    private void run() {
+        long tick = 0;
+        while (running) {
+            long tickEnd = startNanos + (tick + 1) * tickNanos;
+            long wait;
+            while ((wait = tickEnd - System.nanoTime()) > 0 && running) {
+                LockSupport.parkNanos(this, wait);
+            }
+            if (!running) return;
+            transferPending(tick);
+            expire(wheel[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    private void transferPending(long tick) {
+        WheelTimeout t;
+        while ((t = pending.poll()) != null) {
+            if (t.state.get() != WheelTimeout.WAITING) continue;
+            long due = Math.max((t.deadline - startNanos) / tickNanos, tick);
+            t.remainingRounds = (due - tick) / wheel.length;
+            wheel[(int) (due & mask)].add(t);
+        }
+    }
+
+    private void expire(ArrayDeque<WheelTimeout> slot) {
+        for (Iterator<WheelTimeout> it = slot.iterator(); it.hasNext(); ) {
+            WheelTimeout t = it.next();
+            if (t.state.get() != WheelTimeout.WAITING) {
+                it.remove();
+            } else if (t.remainingRounds <= 0) {
+                it.remove();
+                if (t.state.compareAndSet(WheelTimeout.WAITING, WheelTimeout.EXPIRED)) {
+                    workers.execute(() -> fire(t));
+                }
+            } else {
+                t.remainingRounds--;
+            }
+        }
+    }
+
+    private void fire(WheelTimeout t) {
+        drift.record(t.deadline);
+        try {
+            t.task.run();
+        } catch (RuntimeException e) {
+            log.warn("Round timer task failed", e);
+        }
+    }
+
+    private static final class WheelTimeout implements Timeout {
+        static final int WAITING = 0, CANCELLED = 1, EXPIRED = 2;
+
+        final Runnable task;
+        final long deadline;
+        final AtomicInteger state = new AtomicInteger(WAITING);
+        long remainingRounds;
+
+        WheelTimeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean cancel() {
+            return state.compareAndSet(WAITING, CANCELLED);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.liimand.bettinggameserver.service;
+
+import com.liimand.bettinggameserver.domain.PlaceBetResult;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency keys of one round and the result of the bet each key was first sent with. An open addressing
+ * table of key slots claimed by compare-and-set, allocated on the first key and dropped as a whole by
+ * {@link #evict()}. It takes new keys until three quarters full; bets with a key that doesn't fit are placed
+ * as if they had none.
+ */
+final class IdempotencyKeys {
+    private static final int MAX_PROBES = 32;
+    private static final AtomicReferenceArray<Slot> EVICTED = new AtomicReferenceArray<>(0);
+
+    private final int capacity;
+    private final int limit;
+    private final AtomicReference<AtomicReferenceArray<Slot>> slots = new AtomicReference<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    IdempotencyKeys(int capacity) {
+        this.capacity = capacity <= 1 ? capacity : Integer.highestOneBit(capacity - 1) << 1;
+        this.limit = this.capacity - (this.capacity >>> 2);
+    }
+
+    /**
+     * The result {@code key} got the first time, or {@code place}'s result, recorded for {@code key}. A caller
+     * that finds the key still being placed by another waits for its result.
+     */
+    PlaceBetResult resolve(String key, Supplier<PlaceBetResult> place) {
+        AtomicReferenceArray<Slot> table = table();
+        if (table == null) return place.get();
+        int mask = table.length() - 1;
+        int i = spread(key.hashCode()) & mask;
+        Slot mine = null;
+        for (int probe = 0; probe < MAX_PROBES; probe++, i = (i + 1) & mask) {
+            Slot s = table.get(i);
+            if (s == null) {
+                if (size.get() >= limit) break;
+                if (mine == null) mine = new Slot(key);
+                if (table.compareAndSet(i, null, mine)) {
+                    size.incrementAndGet();
+                    return mine.complete(place);
+                }
+                s = table.get(i);
+            }
+            if (s.key.equals(key)) {
+                PlaceBetResult result = s.await();
+                return result != null ? result : place.get();
+            }
+        }
+        return place.get();
+    }
+
+    /**
+     * Forgets every key at once; later calls place their bets unrecorded.
+     */
+    void evict() {
+        slots.set(EVICTED);
+    }
+
+    int size() {
+        return slots.get() == EVICTED ? 0 : size.get();
+    }
+
+    private AtomicReferenceArray<Slot> table() {
+        AtomicReferenceArray<Slot> table = slots.get();
+        if (table == null) {
+            if (capacity <= 0) return null;
+            slots.compareAndSet(null, new AtomicReferenceArray<>(capacity));
+            table = slots.get();
+        }
+        return table == EVICTED ? null : table;
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Slot {
+        final String key;
+        volatile PlaceBetResult result;
+        /** Set once {@code result} is final, even if placing the bet threw and left it {@code null}. */
+        volatile boolean done;
+
+        Slot(String key) { this.key = key; }
+
+        PlaceBetResult complete(Supplier<PlaceBetResult> place) {
+            try {
+                return result = place.get();
+            } finally {
+                done = true;
+            }
+        }
+
+        PlaceBetResult await() {
+            while (!done) Thread.onSpinWait();
+            return result;
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.liimand.bettinggameserver.service;
+
+import com.liimand.bettinggameserver.domain.Bet;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal in memory-mapped segment files. Callers only enqueue a record; a single writer thread
+ * copies records into the mapped segment and forces it to disk once {@code flushBatch} records are pending or
+ * {@code flushIntervalMs} has passed (group commit). A full segment is forced and a new one started; segments
+ * older than the oldest unsettled round are deleted. Every segment starts with a mark record per table holding
+ * its last round id, so a table that has been idle for a while keeps its round ids when its older segments go.
+ * <p>
+ * Record layout: {@code int bodyLength, int crc32c(body), body}, where body is
+ * {@code byte type, short tableIdLength, tableId, long roundId, long value, int number, short nicknameLength,
+ * nickname}. A zero length marks the end of a segment; a bad checksum ends recovery of that segment.
+ */
+@Slf4j
+public class MappedBetJournal implements BetJournal {
+    private static final byte OPENED = 1, BET = 2, SETTLED = 3, MARK = 4;
+    private static final int HEADER = 8;
+    private static final String PREFIX = "journal-", SUFFIX = ".log";
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final long flushIntervalNanos;
+    private final int flushBatch;
+    private final Recovery recovery;
+
+    private final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    // writer thread only
+    private final Map<String, OpenMark> openRounds = new HashMap<>();
+    private final Map<String, Long> lastRoundIds = new HashMap<>();
+    private boolean marked;
+    private final CRC32C crc = new CRC32C();
+    private long segment;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int unflushed;
+    private long lastFlushNanos = System.nanoTime();
+
+    public MappedBetJournal(Path dir, int segmentBytes, long flushIntervalMs, int flushBatch) throws IOException {
+        this.dir = Files.createDirectories(dir);
+        this.segmentBytes = segmentBytes;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.flushBatch = Math.max(1, flushBatch);
+
+        List<Long> segments = segments();
+        this.recovery = replay(segments);
+        this.segment = segments.isEmpty() ? 0 : segments.get(segments.size() - 1) + 1;
+        openSegment();
+
+        this.writer = new Thread(this::run, "bet-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void roundOpened(String tableId, long roundId, long closesAtMs) {
+        queue.add(new Entry(OPENED, tableId, roundId, closesAtMs, 0, null));
+    }
+
+    @Override
+    public void betAccepted(String tableId, long roundId, Bet bet) {
+        queue.add(new Entry(BET, tableId, roundId, bet.getAmountCents(), bet.getNumber(), bet.getNickname()));
+    }
+
+    @Override
+    public void roundSettled(String tableId, long roundId, int winningNumber) {
+        queue.add(new Entry(SETTLED, tableId, roundId, 0, winningNumber, null));
+    }
+
+    @Override
+    public Recovery recover() {
+        return recovery;
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getFlushCount() {
+        return flushes.get();
+    }
+
+    public int getBacklog() {
+        return queue.size();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            while (running || !queue.isEmpty()) {
+                Entry e;
+                while ((e = queue.poll()) != null) {
+                    append(e);
+                    if (++unflushed >= flushBatch) flush();
+                }
+                if (unflushed > 0 && System.nanoTime() - lastFlushNanos >= flushIntervalNanos) flush();
+                if (running) LockSupport.parkNanos(Math.min(flushIntervalNanos, TimeUnit.MILLISECONDS.toNanos(1)));
+            }
+            flush();
+            channel.close();
+        } catch (IOException e) {
+            log.error("Bet journal stopped", e);
+        }
+    }
+
+    private void append(Entry e) throws IOException {
+        byte[] table = e.tableId.getBytes(StandardCharsets.UTF_8);
+        byte[] nick = e.nickname == null ? new byte[0] : e.nickname.getBytes(StandardCharsets.UTF_8);
+        int body = 1 + 2 + table.length + 8 + 8 + 4 + 2 + nick.length;
+        if (HEADER + body > segmentBytes / 2 || table.length > Short.MAX_VALUE || nick.length > Short.MAX_VALUE) {
+            log.warn("Dropping oversized journal record for table {} round {}", e.tableId, e.roundId);
+            return;
+        }
+        if (buffer.remaining() < HEADER + body) rotate();
+        put(e, table, nick, body);
+        track(e.type, e.tableId, e.roundId, segment);
+        written.incrementAndGet();
+    }
+
+    private void put(Entry e, byte[] table, byte[] nick, int body) {
+        int start = buffer.position();
+        buffer.position(start + HEADER);
+        buffer.put(e.type).putShort((short) table.length).put(table)
+                .putLong(e.roundId).putLong(e.value).putInt(e.number)
+                .putShort((short) nick.length).put(nick);
+        crc.reset();
+        crc.update(buffer.slice(start + HEADER, body));
+        buffer.putInt(start + 4, (int) crc.getValue());
+        buffer.putInt(start, body);
+    }
+
+    /**
+     * Writes every table's last round id at the start of the new segment, in at most half of it so a record
+     * always fits after them; {@code marked} tells whether they all fit, and older segments are only deleted if
+     * they did.
+     */
+    private void mark() {
+        marked = true;
+        for (Map.Entry<String, Long> last : lastRoundIds.entrySet()) {
+            byte[] table = last.getKey().getBytes(StandardCharsets.UTF_8);
+            int body = 1 + 2 + table.length + 8 + 8 + 4 + 2;
+            if (buffer.position() + HEADER + body > segmentBytes / 2) {
+                log.warn("Journal segment {} too small for the round ids of {} tables; keeping older segments",
+                        segment, lastRoundIds.size());
+                marked = false;
+                return;
+            }
+            put(new Entry(MARK, last.getKey(), last.getValue(), 0, 0, null), table, new byte[0], body);
+            unflushed++;
+        }
+    }
+
+    private void flush() {
+        if (unflushed == 0) return;
+        buffer.force();
+        unflushed = 0;
+        lastFlushNanos = System.nanoTime();
+        flushes.incrementAndGet();
+    }
+
+    private void rotate() throws IOException {
+        flush();
+        channel.close();
+        segment++;
+        openSegment();
+        if (!marked) return;
+        long keepFrom = openRounds.values().stream().mapToLong(OpenMark::segment).min().orElse(segment);
+        for (long s : segments()) {
+            if (s < keepFrom) Files.deleteIfExists(path(s));
+        }
+    }
+
+    private void openSegment() throws IOException {
+        channel = FileChannel.open(path(segment),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        mark();
+    }
+
+    private Recovery replay(List<Long> segments) throws IOException {
+        Map<String, Long> lastRoundIds = new HashMap<>();
+        Map<String, OpenRound> open = new HashMap<>();
+        for (long s : segments) {
+            try (FileChannel ch = FileChannel.open(path(s), StandardOpenOption.READ)) {
+                ByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                while (buf.remaining() >= HEADER) {
+                    int body = buf.getInt();
+                    int sum = buf.getInt();
+                    if (body <= 0 || body > buf.remaining()) break;
+                    ByteBuffer rec = buf.slice(buf.position(), body);
+                    crc.reset();
+                    crc.update(rec.duplicate());
+                    if ((int) crc.getValue() != sum) {
+                        log.warn("Corrupt journal record in {} at {}", path(s), buf.position() - HEADER);
+                        break;
+                    }
+                    buf.position(buf.position() + body);
+                    apply(rec, s, lastRoundIds, open);
+                }
+            }
+        }
+        return new Recovery(Map.copyOf(lastRoundIds), List.copyOf(open.values()));
+    }
+
+    private void apply(ByteBuffer rec, long s, Map<String, Long> lastRoundIds, Map<String, OpenRound> open) {
+        byte type = rec.get();
+        String tableId = string(rec, rec.getShort());
+        long roundId = rec.getLong();
+        long value = rec.getLong();
+        int number = rec.getInt();
+        String nickname = string(rec, rec.getShort());
+
+        OpenRound round = open.get(tableId);
+        track(type, tableId, roundId, s);
+        switch (type) {
+            case OPENED -> {
+                lastRoundIds.merge(tableId, roundId, Math::max);
+                open.put(tableId, new OpenRound(tableId, roundId, value, new ArrayList<>()));
+            }
+            case BET -> {
+                if (round != null && round.roundId() == roundId) round.bets().add(new Bet(nickname, number, value));
+            }
+            case SETTLED -> {
+                if (round != null && round.roundId() == roundId) open.remove(tableId);
+            }
+            case MARK -> lastRoundIds.merge(tableId, roundId, Math::max);
+            default -> log.warn("Unknown journal record type {}", type);
+        }
+    }
+
+    /**
+     * Remembers each table's last round id and the segment holding the start of its unsettled round; a newer
+     * opening supersedes it.
+     */
+    private void track(byte type, String tableId, long roundId, long s) {
+        if (type == OPENED || type == MARK) lastRoundIds.merge(tableId, roundId, Math::max);
+        if (type == OPENED) {
+            openRounds.put(tableId, new OpenMark(roundId, s));
+        } else if (type == SETTLED) {
+            OpenMark mark = openRounds.get(tableId);
+            if (mark != null && mark.roundId() == roundId) openRounds.remove(tableId);
+        }
+    }
+
+    private static String string(ByteBuffer buf, int length) {
+        byte[] bytes = new byte[length];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private List<Long> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(p -> p.getFileName().toString())
+                    .filter(n -> n.startsWith(PREFIX) && n.endsWith(SUFFIX))
+                    .map(n -> Long.parseLong(n.substring(PREFIX.length(), n.length() - SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        } catch (NumberFormatException e) {
+            throw new UncheckedIOException(new IOException("Unexpected file in journal directory " + dir, e));
+        }
+    }
+
+    private Path path(long s) {
+        return dir.resolve(String.format("%s%020d%s", PREFIX, s, SUFFIX));
+    }
+
+    private record Entry(byte type, String tableId, long roundId, long value, int number, String nickname) {}
+
+    private record OpenMark(long roundId, long segment) {}
+}
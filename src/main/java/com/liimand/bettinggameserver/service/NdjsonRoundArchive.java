@@ -0,0 +1,225 @@
+package com.liimand.bettinggameserver.service;
+
+import com.liimand.bettinggameserver.domain.RoundInfo;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * One NDJSON file per settled round, {@code dir/<tableId>/<roundId>.ndjson}: a {@code ROUND} line, a {@code BET}
+ * line per bet and a {@code TOTALS} line. A single writer thread walks the round's bets, encodes each line into
+ * one reused 64 KiB buffer and streams it into a temporary file, which is moved into place once complete, so
+ * heap use doesn't grow with the round and a file {@link #find} returns is always whole. An existing round file
+ * is never replaced.
+ * <pre>
+ * {"type":"ROUND","tableId":"default","roundId":42,"openedAtMs":1700000000000,"closesAtMs":1700000010000,"winningNumber":7}
+ * {"type":"BET","nickname":"Joe","number":7,"amount":10.00,"payout":9.90}
+ * {"type":"TOTALS","bets":1,"stake":10.00,"payout":9.90}
+ * </pre>
+ */
+@Slf4j
+public class NdjsonRoundArchive implements RoundArchive {
+    private static final int BUFFER = 64 << 10;
+    private static final String SUFFIX = ".ndjson";
+
+    private final Path dir;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "round-archive");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // writer thread only
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER);
+    private final StringBuilder line = new StringBuilder(128);
+    private final CharsetEncoder utf8 = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    public NdjsonRoundArchive(Path dir) throws IOException {
+        this.dir = Files.createDirectories(dir);
+    }
+
+    @Override
+    public void archive(String tableId, RoundInfo round, int winningNumber, Bets bets, Runnable done) {
+        try {
+            writer.execute(() -> {
+                try {
+                    write(tableId, round, winningNumber, bets);
+                } finally {
+                    done.run();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Archive closed, round {} of table {} not written", round.roundId(), tableId);
+            done.run();
+        }
+    }
+
+    @Override
+    public long lastRoundId(String tableId) {
+        Path tableDir = dir.resolve(tableId);
+        if (!Files.isDirectory(tableDir)) return 0;
+        try (Stream<Path> files = Files.list(tableDir)) {
+            return files.map(p -> p.getFileName().toString())
+                    .filter(n -> n.endsWith(SUFFIX))
+                    .mapToLong(n -> parseRoundId(n.substring(0, n.length() - SUFFIX.length())))
+                    .max().orElse(0);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read archive of table " + tableId, e);
+        }
+    }
+
+    @Override
+    public Path find(String tableId, long roundId) {
+        Path file = file(tableId, roundId);
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    /**
+     * Writes out the rounds already handed over, then stops.
+     */
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Path file(String tableId, long roundId) {
+        return dir.resolve(tableId).resolve(roundId + SUFFIX);
+    }
+
+    private void write(String tableId, RoundInfo round, int winningNumber, Bets bets) {
+        Path file = file(tableId, round.roundId());
+        if (Files.exists(file)) {
+            log.error("Round file {} already exists, not replacing it; round {} of table {} is not archived",
+                    file, round.roundId(), tableId);
+            return;
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                buffer.clear();
+                line.setLength(0);
+                line.append("{\"type\":\"ROUND\",\"tableId\":");
+                appendString(tableId);
+                line.append(",\"roundId\":").append(round.roundId())
+                        .append(",\"openedAtMs\":").append(round.openedAt().toEpochMilli())
+                        .append(",\"closesAtMs\":").append(round.bettingClosesAt().toEpochMilli())
+                        .append(",\"winningNumber\":").append(winningNumber).append('}');
+                writeLine(channel);
+
+                long[] totals = new long[3];
+                bets.forEach((nickname, number, amountCents, payoutCents) -> {
+                    totals[0]++;
+                    totals[1] += amountCents;
+                    totals[2] += payoutCents;
+                    line.append("{\"type\":\"BET\",\"nickname\":");
+                    appendString(nickname);
+                    line.append(",\"number\":").append(number).append(",\"amount\":");
+                    appendMoney(amountCents);
+                    line.append(",\"payout\":");
+                    appendMoney(payoutCents);
+                    line.append('}');
+                    writeLine(channel);
+                });
+
+                line.append("{\"type\":\"TOTALS\",\"bets\":").append(totals[0]).append(",\"stake\":");
+                appendMoney(totals[1]);
+                line.append(",\"payout\":");
+                appendMoney(totals[2]);
+                line.append('}');
+                writeLine(channel);
+                drain(channel);
+            }
+            if (Files.exists(file)) {
+                log.error("Round file {} appeared while writing, not replacing it", file);
+                Files.deleteIfExists(tmp);
+                return;
+            }
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | UncheckedIOException e) {
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException cleanup) {
+                e.addSuppressed(cleanup);
+            }
+            log.warn("Could not archive {}", file, e);
+        }
+    }
+
+    /**
+     * Encodes {@code line} plus a newline into the buffer, draining it to {@code channel} whenever it fills.
+     */
+    private void writeLine(FileChannel channel) {
+        line.append('\n');
+        CharBuffer chars = CharBuffer.wrap(line);
+        utf8.reset();
+        try {
+            for (;;) {
+                CoderResult result = utf8.encode(chars, buffer, true);
+                if (result.isOverflow()) drain(channel);
+                else break;
+            }
+            while (utf8.flush(buffer).isOverflow()) drain(channel);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        line.setLength(0);
+    }
+
+    private void drain(FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    private void appendMoney(long cents) {
+        long fraction = cents % 100;
+        line.append(cents / 100).append('.');
+        if (fraction < 10) line.append('0');
+        line.append(fraction);
+    }
+
+    private void appendString(String s) {
+        line.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') line.append('\\').append(c);
+            else if (c < 0x20) line.append(String.format("\\u%04x", (int) c));
+            else line.append(c);
+        }
+        line.append('"');
+    }
+
+    private static long parseRoundId(String name) {
+        try {
+            return Long.parseLong(name);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
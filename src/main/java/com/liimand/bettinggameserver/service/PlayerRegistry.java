@@ -0,0 +1,128 @@
+package com.liimand.bettinggameserver.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Dense int ids for nicknames, so rounds and sessions can key players by {@code int} instead of by string.
+ * <p>
+ * An id stays bound to its nickname while it is pinned: {@link #acquire} pins, {@link #release} unpins, and
+ * rounds and bound sessions hold a pin for as long as they refer to the player. Ids are handed out
+ * sequentially up to {@code capacity}; after that a clock hand reclaims ids whose pin count is zero, and
+ * {@code acquire} returns {@code -1} if every id is pinned.
+ */
+@Component
+public class PlayerRegistry {
+    /** Pin count of an id that is not bound to any nickname yet. */
+    private static final int RECLAIMED = -1;
+
+    private final int capacity;
+    private final ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<String> nicknames;
+    private final AtomicIntegerArray pins;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicInteger hand = new AtomicInteger();
+    private final List<IntConsumer> reclaimListeners = new CopyOnWriteArrayList<>();
+
+    public PlayerRegistry(@Value("${game.players.max:1048576}") int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        this.capacity = capacity;
+        this.nicknames = new AtomicReferenceArray<>(capacity);
+        this.pins = new AtomicIntegerArray(capacity);
+        for (int i = 0; i < capacity; i++) pins.set(i, RECLAIMED);
+    }
+
+    /**
+     * The pinned id of {@code nickname}, registering it if needed, or {@code -1} if the registry is full.
+     */
+    public int acquire(String nickname) {
+        for (;;) {
+            Integer id = ids.get(nickname);
+            if (id == null) {
+                int fresh = claim();
+                if (fresh < 0) return -1;
+                nicknames.set(fresh, nickname);
+                pins.set(fresh, 1);
+                Integer raced = ids.putIfAbsent(nickname, fresh);
+                if (raced == null) return fresh;
+                nicknames.set(fresh, null);
+                pins.set(fresh, 0);
+                id = raced;
+            }
+            if (pin(id)) {
+                // the id may have been reclaimed and handed to someone else between the lookup and the pin
+                if (nickname.equals(nicknames.get(id))) return id;
+                release(id);
+            }
+        }
+    }
+
+    public void release(int id) {
+        pins.decrementAndGet(id);
+    }
+
+    /**
+     * The id currently bound to {@code nickname}, without pinning it, or {@code -1}.
+     */
+    public int find(String nickname) {
+        Integer id = ids.get(nickname);
+        return id == null ? -1 : id;
+    }
+
+    public String nickname(int id) {
+        return nicknames.get(id);
+    }
+
+    /**
+     * Calls {@code listener} with every id reclaimed from an unpinned player, before it is bound to the next one,
+     * so state kept per id can be reset.
+     */
+    public void onReclaim(IntConsumer listener) {
+        reclaimListeners.add(listener);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    private boolean pin(int id) {
+        for (;;) {
+            int p = pins.get(id);
+            if (p < 0) return false;
+            if (pins.compareAndSet(id, p, p + 1)) return true;
+        }
+    }
+
+    /**
+     * An id only the caller holds: a never used one while they last, else one reclaimed from an unpinned player.
+     */
+    private int claim() {
+        if (next.get() < capacity) {
+            int id = next.getAndIncrement();
+            if (id < capacity) return id;
+        }
+        for (int i = 0; i < capacity; i++) {
+            int id = Math.floorMod(hand.getAndIncrement(), capacity);
+            if (pins.compareAndSet(id, 0, RECLAIMED)) {
+                String old = nicknames.get(id);
+                if (old != null) ids.remove(old, id);
+                for (IntConsumer listener : reclaimListeners) listener.accept(id);
+                return id;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,51 @@
+package com.liimand.bettinggameserver.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes {@link GameListener#onPoolStats} for every table with an open round, {@code game.pool-stats.hz}
+ * times a second and only if the round took bets since the previous tick. The cost per tick depends on the
+ * number of tables, never on the bet rate. {@code 0} turns it off.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PoolStatsTicker {
+    private final GameService gameService;
+    private final ScheduledExecutorService scheduler;
+
+    @Value("${game.pool-stats.hz:4}")
+    private double hz;
+
+    private ScheduledFuture<?> task;
+
+    @PostConstruct
+    void start() {
+        if (hz <= 0) return;
+        long periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / hz);
+        task = scheduler.scheduleAtFixedRate(this::tick, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void tick() {
+        try {
+            for (GameTable table : gameService.tables()) table.publishPoolStats();
+        } catch (RuntimeException e) {
+            // an exception would cancel the fixed-rate task for good
+            log.warn("Pool stats tick failed", e);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (task != null) task.cancel(false);
+    }
+}
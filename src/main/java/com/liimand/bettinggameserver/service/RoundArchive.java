@@ -0,0 +1,53 @@
+package com.liimand.bettinggameserver.service;
+
+import com.liimand.bettinggameserver.domain.RoundInfo;
+
+import java.nio.file.Path;
+
+/**
+ * Per-round record of every bet and payout, kept for export after the round is gone from memory. A table hands
+ * its settled round over once the settlement is published; the archive walks the bets on its own thread and
+ * must not hold up the settling thread.
+ */
+public interface RoundArchive extends AutoCloseable {
+
+    RoundArchive NOOP = new RoundArchive() {
+        @Override public void archive(String tableId, RoundInfo round, int winningNumber, Bets bets, Runnable done) {
+            done.run();
+        }
+        @Override public long lastRoundId(String tableId) { return 0; }
+        @Override public Path find(String tableId, long roundId) { return null; }
+    };
+
+    /**
+     * Archives a settled round, then runs {@code done}. Until {@code done} runs, the bets and the nicknames they
+     * resolve to must stay as they are.
+     */
+    void archive(String tableId, RoundInfo round, int winningNumber, Bets bets, Runnable done);
+
+    /**
+     * The highest round id archived for {@code tableId}, {@code 0} if none, so round ids continue past it.
+     */
+    long lastRoundId(String tableId);
+
+    /**
+     * The file of an archived round, or {@code null} if the round isn't archived (yet).
+     */
+    Path find(String tableId, long roundId);
+
+    @Override
+    default void close() {}
+
+    /**
+     * The bets of a settled round, walked by the archive.
+     */
+    @FunctionalInterface
+    interface Bets {
+        void forEach(BetVisitor visitor);
+    }
+
+    @FunctionalInterface
+    interface BetVisitor {
+        void bet(String nickname, int number, long amountCents, long payoutCents);
+    }
+}
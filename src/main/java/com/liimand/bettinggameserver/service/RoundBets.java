@@ -0,0 +1,164 @@
+package com.liimand.bettinggameserver.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bets of a single round, keyed by {@link PlayerRegistry} id. A bitset of player ids answers "already bet this
+ * round", and every bet is appended as {@code (playerId, amountCents)} to primitive chunks in the bucket of the
+ * number it was placed on, so settlement only has to visit the winning bucket. Bitset words and bucket chunks
+ * are allocated on first use, so a quiet round costs next to nothing whatever the registry capacity.
+ * <p>
+ * Writers add bets between {@link #enter()} and {@link #exit()}; {@link #seal()} is the cutoff. A bet whose
+ * writer entered before the seal is part of the round, any later one is refused, and once {@code seal()}
+ * returns the bets no longer change.
+ */
+final class RoundBets {
+    static final int NUMBERS = 10;
+    private static final long SEALED = Long.MIN_VALUE;
+    private static final int CHUNK_BITS = 12, CHUNK = 1 << CHUNK_BITS;
+
+    final long roundId;
+
+    private final AtomicReferenceArray<AtomicLongArray> placed;
+    private final Bucket[] buckets = new Bucket[NUMBERS];
+    /** Striped, so concurrent bets on the same number don't contend on one cache line. */
+    private final LongAdder[] stakeCents = new LongAdder[NUMBERS];
+    /** Sign bit: sealed; remaining bits: writers inside. */
+    private final AtomicLong gate = new AtomicLong();
+
+    RoundBets(long roundId, int maxPlayers) {
+        this.roundId = roundId;
+        int chunks = (maxPlayers + CHUNK - 1) >>> CHUNK_BITS;
+        this.placed = new AtomicReferenceArray<>(chunks);
+        for (int i = 0; i < NUMBERS; i++) {
+            buckets[i] = new Bucket();
+            stakeCents[i] = new LongAdder();
+        }
+    }
+
+    boolean enter() {
+        if (gate.getAndIncrement() >= 0) return true;
+        gate.decrementAndGet();
+        return false;
+    }
+
+    void exit() {
+        gate.decrementAndGet();
+    }
+
+    void seal() {
+        gate.getAndUpdate(g -> g | SEALED);
+        while ((gate.get() & ~SEALED) != 0) Thread.onSpinWait();
+    }
+
+    /**
+     * Records the bet unless {@code playerId} already has one this round.
+     */
+    boolean add(int playerId, int number, long amountCents) {
+        AtomicLongArray words = placed.get(playerId >>> CHUNK_BITS);
+        if (words == null) {
+            placed.compareAndSet(playerId >>> CHUNK_BITS, null, new AtomicLongArray(CHUNK / Long.SIZE));
+            words = placed.get(playerId >>> CHUNK_BITS);
+        }
+        int word = (playerId & (CHUNK - 1)) >>> 6;
+        long bit = 1L << playerId;
+        long w;
+        do {
+            w = words.get(word);
+            if ((w & bit) != 0) return false;
+        } while (!words.compareAndSet(word, w, w | bit));
+        // stake first: a reader that sees the bucket's size include this bet sees its stake too, and one that
+        // reads the stake early sees the size change afterwards
+        stakeCents[number - 1].add(amountCents);
+        buckets[number - 1].append(playerId, amountCents);
+        return true;
+    }
+
+    int count(int number) {
+        return buckets[number - 1].size();
+    }
+
+    long stakeCents(int number) {
+        return stakeCents[number - 1].sum();
+    }
+
+    int size() {
+        int total = 0;
+        for (Bucket b : buckets) total += b.size();
+        return total;
+    }
+
+    void forEach(int number, BetConsumer consumer) {
+        buckets[number - 1].forEach(consumer);
+    }
+
+    void forEach(BetConsumer consumer) {
+        for (Bucket b : buckets) b.forEach(consumer);
+    }
+
+    @FunctionalInterface
+    interface BetConsumer {
+        void accept(int playerId, long amountCents);
+    }
+
+    /**
+     * Append-only {@code (playerId, amountCents)} pairs in chunks that double in size, so a bucket with a
+     * handful of bets stays small and one with a million needs only a few chunks. A writer claims a slot, then
+     * fills it; readers only iterate after {@link #seal()}, when every claimed slot has been written.
+     */
+    private static final class Bucket {
+        private static final int FIRST_BITS = 4;
+
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicReferenceArray<Chunk> chunks = new AtomicReferenceArray<>(Integer.SIZE - FIRST_BITS);
+
+        void append(int playerId, long amountCents) {
+            int slot = size.getAndIncrement();
+            int k = chunkOf(slot);
+            Chunk c = chunks.get(k);
+            if (c == null) {
+                chunks.compareAndSet(k, null, new Chunk(1 << (k + FIRST_BITS)));
+                c = chunks.get(k);
+            }
+            int i = slot - chunkStart(k);
+            c.players[i] = playerId;
+            c.amounts[i] = amountCents;
+        }
+
+        int size() {
+            return size.get();
+        }
+
+        void forEach(BetConsumer consumer) {
+            int remaining = size.get();
+            for (int k = 0; remaining > 0; k++) {
+                Chunk c = chunks.get(k);
+                int n = Math.min(remaining, c.players.length);
+                for (int i = 0; i < n; i++) consumer.accept(c.players[i], c.amounts[i]);
+                remaining -= n;
+            }
+        }
+
+        private static int chunkOf(int slot) {
+            return 31 - Integer.numberOfLeadingZeros((slot >>> FIRST_BITS) + 1);
+        }
+
+        private static int chunkStart(int k) {
+            return ((1 << k) - 1) << FIRST_BITS;
+        }
+    }
+
+    private static final class Chunk {
+        final int[] players;
+        final long[] amounts;
+
+        Chunk(int size) {
+            this.players = new int[size];
+            this.amounts = new long[size];
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.liimand.bettinggameserver.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules round closes and auto-repeats. Implementations report how late tasks fire against their deadline.
+ */
+public interface RoundTimer {
+
+    Timeout schedule(Runnable task, long delay, TimeUnit unit);
+
+    DriftStats drift();
+
+    interface Timeout {
+        /**
+         * @return {@code true} if the task had not run yet and never will
+         */
+        boolean cancel();
+    }
+
+    record DriftStats(long fired, long avgDriftMicros, long maxDriftMicros) {}
+}
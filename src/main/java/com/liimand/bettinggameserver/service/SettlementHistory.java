@@ -0,0 +1,93 @@
+package com.liimand.bettinggameserver.service;
+
+import com.liimand.bettinggameserver.domain.Settlement;
+import com.liimand.bettinggameserver.domain.WinnerInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * The last {@code capacity} settlements of a table. Round {@code r} lives in slot {@code r % capacity}; the
+ * settling thread overwrites the slot and readers check the round id of what they find, so neither side locks.
+ */
+public final class SettlementHistory {
+    private final AtomicReferenceArray<Entry> slots;
+    private final int mask;
+    private volatile long latestRound;
+
+    SettlementHistory(int capacity) {
+        int size = Math.max(1, Integer.highestOneBit(Math.max(1, capacity) - 1) << 1);
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    void add(Settlement settlement) {
+        List<WinnerInfo> winners = settlement.getWinners();
+        String[] nicknames = new String[winners.size()];
+        long[] winningsCents = new long[winners.size()];
+        for (int i = 0; i < nicknames.length; i++) {
+            nicknames[i] = winners.get(i).getNickname();
+            winningsCents[i] = winners.get(i).getWinningsCents();
+        }
+        long round = settlement.getRoundId();
+        slots.set((int) (round & mask), new Entry(round, (byte) settlement.getWinningNumber(), nicknames, winningsCents));
+        if (round > latestRound) latestRound = round;
+    }
+
+    /**
+     * Up to {@code limit} settlements from {@code fromRound} on, oldest first. Without {@code fromRound} the
+     * latest {@code limit} are returned.
+     */
+    public List<Entry> page(Long fromRound, int limit) {
+        long latest = latestRound;
+        long oldest = Math.max(1, latest - mask);
+        long from = Math.max(oldest, fromRound != null ? fromRound : latest - limit + 1);
+        List<Entry> page = new ArrayList<>(Math.min(limit, 64));
+        for (long r = from; r <= latest && page.size() < limit; r++) {
+            Entry e = slots.get((int) (r & mask));
+            if (e != null && e.roundId == r) page.add(e);
+        }
+        return page;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    public static final class Entry {
+        private final long roundId;
+        private final byte winningNumber;
+        private final String[] nicknames;
+        private final long[] winningsCents;
+        private volatile byte[] encoded;
+
+        private Entry(long roundId, byte winningNumber, String[] nicknames, long[] winningsCents) {
+            this.roundId = roundId;
+            this.winningNumber = winningNumber;
+            this.nicknames = nicknames;
+            this.winningsCents = winningsCents;
+        }
+
+        public long roundId() {
+            return roundId;
+        }
+
+        public Settlement toSettlement() {
+            List<WinnerInfo> winners = new ArrayList<>(nicknames.length);
+            for (int i = 0; i < nicknames.length; i++) winners.add(new WinnerInfo(nicknames[i], winningsCents[i]));
+            return new Settlement(roundId, winningNumber, winners);
+        }
+
+        /**
+         * The entry's serialized form, produced by {@code encoder} on first use and cached; a racing first read
+         * may encode twice, which is harmless as the entry never changes.
+         */
+        public byte[] encoded(Function<Entry, byte[]> encoder) {
+            byte[] bytes = encoded;
+            if (bytes == null) encoded = bytes = encoder.apply(this);
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.liimand.bettinggameserver.service;
+
+public class TableLimitException extends RuntimeException {
+    public TableLimitException(String tableId, int maxTables) {
+        super("Cannot create table " + tableId + ": all " + maxTables + " tables are in use");
+    }
+}
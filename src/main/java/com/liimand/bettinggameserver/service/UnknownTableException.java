@@ -0,0 +1,7 @@
+package com.liimand.bettinggameserver.service;
+
+public class UnknownTableException extends RuntimeException {
+    public UnknownTableException(String tableId) {
+        super("Unknown table: " + tableId);
+    }
+}
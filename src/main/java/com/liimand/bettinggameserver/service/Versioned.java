@@ -0,0 +1,40 @@
+package com.liimand.bettinggameserver.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * A published state, such as a table's current round, and its version. Every change publishes a new instance
+ * with a new version, so readers can tell "unchanged" from the version alone and reuse the cached serialized
+ * form. Versions come from one sequence seeded with the start time: they are unique across tables and do not
+ * repeat after a restart.
+ */
+public final class Versioned<T> {
+    private static final AtomicLong VERSIONS = new AtomicLong(System.currentTimeMillis() << 20);
+
+    private final long version = VERSIONS.incrementAndGet();
+    private final T value;
+    private volatile byte[] encoded;
+
+    Versioned(T value) {
+        this.value = value;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public T value() {
+        return value;
+    }
+
+    /**
+     * The value's serialized form, produced by {@code encoder} on first use and cached; a racing first read may
+     * encode twice, which is harmless as the value never changes.
+     */
+    public byte[] encoded(Function<T, byte[]> encoder) {
+        byte[] bytes = encoded;
+        if (bytes == null) encoded = bytes = encoder.apply(value);
+        return bytes;
+    }
+}
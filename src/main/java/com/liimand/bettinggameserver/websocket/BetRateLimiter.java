@@ -0,0 +1,183 @@
+package com.liimand.bettinggameserver.websocket;
+
+import com.liimand.bettinggameserver.service.PlayerRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Token buckets on bet ingress, per session, per remote address and per player. Each bucket is one atomic long,
+ * the time its next token is due: a request takes a token by moving it one interval on with a compare-and-set,
+ * and is refused if that would put it more than {@code burst} intervals ahead of now. Sessions and addresses
+ * get their buckets when a session opens and lose them when the last session closes; player buckets are
+ * indexed by {@link PlayerRegistry} id, so their memory is bounded by the registry. A player's bucket outlives
+ * its sessions, so reconnecting doesn't refill it; it is only reset when the registry hands the id to another
+ * player. A limit of {@code 0} per second turns that bucket off.
+ */
+@Component
+public class BetRateLimiter {
+    private static final int CHUNK_BITS = 12, CHUNK = 1 << CHUNK_BITS;
+
+    private final Limit session;
+    private final Limit address;
+    private final Limit player;
+    private final long epoch = System.nanoTime();
+    private final ConcurrentMap<WebSocketSession, SessionBuckets> sessions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<InetAddress, AddressBucket> addresses = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<AtomicLongArray> players;
+
+    public BetRateLimiter(Limit session, Limit address, Limit player, int maxPlayers) {
+        this.session = session;
+        this.address = address;
+        this.player = player;
+        this.players = new AtomicReferenceArray<>(player.enabled() ? (maxPlayers + CHUNK - 1) >>> CHUNK_BITS : 0);
+    }
+
+    @Autowired
+    public BetRateLimiter(@Value("${game.ws.rate.session-per-second:20}") double sessionPerSecond,
+                          @Value("${game.ws.rate.session-burst:50}") int sessionBurst,
+                          @Value("${game.ws.rate.address-per-second:0}") double addressPerSecond,
+                          @Value("${game.ws.rate.address-burst:0}") int addressBurst,
+                          @Value("${game.ws.rate.player-per-second:5}") double playerPerSecond,
+                          @Value("${game.ws.rate.player-burst:10}") int playerBurst,
+                          PlayerRegistry registry) {
+        this(new Limit(sessionPerSecond, sessionBurst), new Limit(addressPerSecond, addressBurst),
+                new Limit(playerPerSecond, playerBurst), registry.capacity());
+        registry.onReclaim(this::reset);
+    }
+
+    public static BetRateLimiter unlimited() {
+        return new BetRateLimiter(Limit.NONE, Limit.NONE, Limit.NONE, 0);
+    }
+
+    void opened(WebSocketSession s) {
+        if (!session.enabled() && !address.enabled()) return;
+        AddressBucket shared = null;
+        InetAddress remote = remoteAddress(s);
+        if (address.enabled() && remote != null) {
+            shared = addresses.compute(remote, (k, b) -> {
+                AddressBucket bucket = b != null ? b : new AddressBucket();
+                bucket.sessions++;
+                return bucket;
+            });
+        }
+        sessions.put(s, new SessionBuckets(new AtomicLong(), remote, shared));
+    }
+
+    /**
+     * Drops the session's buckets and its address bucket with the last session from that address. The buckets
+     * of the players it bet for are kept.
+     */
+    void closed(WebSocketSession s) {
+        SessionBuckets buckets = sessions.remove(s);
+        if (buckets != null && buckets.address != null) {
+            addresses.computeIfPresent(buckets.remote, (k, b) -> --b.sessions == 0 ? null : b);
+        }
+    }
+
+    /**
+     * Refills the bucket of player {@code id}, once the id belongs to another player.
+     */
+    void reset(int id) {
+        AtomicLongArray chunk = id >>> CHUNK_BITS < players.length() ? players.get(id >>> CHUNK_BITS) : null;
+        if (chunk != null) chunk.set(id & (CHUNK - 1), 0);
+    }
+
+    /**
+     * Whether the session may send another frame; checked before the frame is parsed.
+     */
+    boolean allowFrame(WebSocketSession s) {
+        SessionBuckets buckets = sessions.get(s);
+        if (buckets == null) return true;
+        long now = now();
+        if (session.enabled() && !session.tryAcquire(buckets.session, now)) return false;
+        return buckets.address == null || address.tryAcquire(buckets.address.next, now);
+    }
+
+    /**
+     * Whether player {@code id} may bet again; ids below zero (not registered yet) always may.
+     */
+    boolean allowPlayer(int id) {
+        if (!player.enabled() || id < 0) return true;
+        int c = id >>> CHUNK_BITS;
+        AtomicLongArray chunk = players.get(c);
+        if (chunk == null) {
+            players.compareAndSet(c, null, new AtomicLongArray(CHUNK));
+            chunk = players.get(c);
+        }
+        return player.tryAcquire(chunk, id & (CHUNK - 1), now());
+    }
+
+    int trackedSessions() {
+        return sessions.size();
+    }
+
+    int trackedAddresses() {
+        return addresses.size();
+    }
+
+    private long now() {
+        return System.nanoTime() - epoch;
+    }
+
+    private static InetAddress remoteAddress(WebSocketSession s) {
+        InetSocketAddress remote = s.getRemoteAddress();
+        return remote == null ? null : remote.getAddress();
+    }
+
+    /**
+     * {@code perSecond} tokens a second, at most {@code burst} at once.
+     */
+    public record Limit(double perSecond, int burst) {
+        public static final Limit NONE = new Limit(0, 0);
+
+        boolean enabled() {
+            return perSecond > 0;
+        }
+
+        private long intervalNanos() {
+            return (long) (1_000_000_000L / perSecond);
+        }
+
+        private long toleranceNanos() {
+            return Math.max(1, burst) * intervalNanos();
+        }
+
+        boolean tryAcquire(AtomicLong due, long now) {
+            long interval = intervalNanos(), tolerance = toleranceNanos();
+            for (;;) {
+                long d = due.get();
+                long next = Math.max(d, now) + interval;
+                if (next - now > tolerance) return false;
+                if (due.compareAndSet(d, next)) return true;
+            }
+        }
+
+        boolean tryAcquire(AtomicLongArray due, int i, long now) {
+            long interval = intervalNanos(), tolerance = toleranceNanos();
+            for (;;) {
+                long d = due.get(i);
+                long next = Math.max(d, now) + interval;
+                if (next - now > tolerance) return false;
+                if (due.compareAndSet(i, d, next)) return true;
+            }
+        }
+    }
+
+    private record SessionBuckets(AtomicLong session, InetAddress remote, AddressBucket address) {}
+
+    private static final class AddressBucket {
+        final AtomicLong next = new AtomicLong();
+        /** Guarded by the map's compute. */
+        int sessions;
+    }
+}
@@ -0,0 +1,167 @@
+package com.liimand.bettinggameserver.websocket;
+
+import com.liimand.bettinggameserver.domain.Money;
+import com.liimand.bettinggameserver.domain.PlaceBetResult;
+import org.springframework.web.socket.BinaryMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+/**
+ * Frames of the {@value GameWebSocketHandler#BINARY_PROTOCOL} subprotocol. Every frame starts with a type byte;
+ * integers are unsigned LEB128 varints, amounts are minor units and strings are a varint byte length followed
+ * by UTF-8.
+ * <pre>
+ * client → server
+ *   0x01 BET          number, amountCents, nickname[, idempotencyKey]
+ *   0x02 BET_BATCH    count, count × (number, amountCents, nickname)
+ * server → client
+ *   0x10 ROUND_OPENED     roundId, closesAtMs
+ *   0x11 ROUND_SETTLED    roundId, winningNumber
+ *   0x12 WINNERS          roundId, count, count × (nickname, winningsCents)
+ *   0x13 YOUR_RESULT      roundId, win (0/1), payoutCents
+ *   0x14 BET_ACCEPTED
+ *   0x15 BET_BATCH_RESULT count, count × PlaceBetResult ordinal
+ *   0x16 POOL_STATS       roundId, count, count × (bets, stakeCents), one entry per number from 1
+ *   0x1F ERROR            code, message
+ * </pre>
+ */
+final class BinaryCodec {
+    static final byte BET = 0x01, BET_BATCH = 0x02;
+    static final byte ROUND_OPENED = 0x10, ROUND_SETTLED = 0x11, WINNERS = 0x12, YOUR_RESULT = 0x13,
+            BET_ACCEPTED = 0x14, BET_BATCH_RESULT = 0x15, POOL_STATS = 0x16, ERROR = 0x1F;
+
+    private BinaryCodec() {}
+
+    static GameWebSocketHandler.InMessage decode(ByteBuffer frame) {
+        ByteBuffer buf = frame.duplicate();
+        byte type = buf.get();
+        GameWebSocketHandler.InMessage in = switch (type) {
+            case BET -> {
+                GameWebSocketHandler.InMessage bet = readBet(buf);
+                if (buf.hasRemaining()) bet.idempotencyKey = readString(buf);
+                yield bet;
+            }
+            case BET_BATCH -> {
+                int count = (int) readVarint(buf);
+                GameWebSocketHandler.InMessage batch = new GameWebSocketHandler.InMessage();
+                batch.bets = new ArrayList<>(Math.min(count, 1024));
+                for (int i = 0; i < count; i++) batch.bets.add(readBet(buf));
+                yield batch;
+            }
+            default -> throw new IllegalArgumentException("unknown frame type " + type);
+        };
+        in.type = type == BET ? "BET" : "BET_BATCH";
+        if (buf.hasRemaining()) throw new IllegalArgumentException("trailing bytes in frame");
+        return in;
+    }
+
+    /**
+     * Encodes one of the handler's outgoing records, or returns {@code null} for payloads without a binary form.
+     */
+    static BinaryMessage encode(Object payload) {
+        Writer w = new Writer();
+        if (payload instanceof GameWebSocketHandler.OutRoundOpened m) {
+            w.type(ROUND_OPENED).varint(m.roundId()).varint(m.closesAtMs());
+        } else if (payload instanceof GameWebSocketHandler.OutRoundSettled m) {
+            w.type(ROUND_SETTLED).varint(m.roundId()).varint(m.winningNumber());
+        } else if (payload instanceof GameWebSocketHandler.OutWinners m) {
+            w.type(WINNERS).varint(m.roundId()).varint(m.winners().size());
+            for (GameWebSocketHandler.OutWinners.Winner winner : m.winners()) {
+                w.string(winner.nickname()).varint(cents(winner.winnings()));
+            }
+        } else if (payload instanceof GameWebSocketHandler.OutYourResult m) {
+            w.type(YOUR_RESULT).varint(m.roundId()).varint("WIN".equals(m.result()) ? 1 : 0).varint(cents(m.payout()));
+        } else if (payload instanceof GameWebSocketHandler.OutAck) {
+            w.type(BET_ACCEPTED);
+        } else if (payload instanceof GameWebSocketHandler.OutBatchResult m) {
+            w.type(BET_BATCH_RESULT).varint(m.results().size());
+            for (PlaceBetResult r : m.results()) w.varint(r.ordinal());
+        } else if (payload instanceof GameWebSocketHandler.OutPoolStats m) {
+            w.type(POOL_STATS).varint(m.roundId()).varint(m.counts().length);
+            for (int i = 0; i < m.counts().length; i++) w.varint(m.counts()[i]).varint(cents(m.stakes()[i]));
+        } else if (payload instanceof GameWebSocketHandler.OutError m) {
+            w.type(ERROR).string(m.type()).string(m.message() == null ? "" : m.message());
+        } else {
+            return null;
+        }
+        return w.toMessage();
+    }
+
+    private static GameWebSocketHandler.InMessage readBet(ByteBuffer buf) {
+        GameWebSocketHandler.InMessage bet = new GameWebSocketHandler.InMessage();
+        bet.number = (int) Math.min(readVarint(buf), Integer.MAX_VALUE);
+        bet.amount = Money.toDecimal(readVarint(buf));
+        bet.nickname = readString(buf);
+        return bet;
+    }
+
+    static long readVarint(ByteBuffer buf) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buf.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IllegalArgumentException("varint too long");
+    }
+
+    static String readString(ByteBuffer buf) {
+        long length = readVarint(buf);
+        if (length > buf.remaining()) throw new IllegalArgumentException("string exceeds frame");
+        byte[] bytes = new byte[(int) length];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount == null ? 0 : Money.toMinorUnits(amount);
+    }
+
+    private static final class Writer {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream(32);
+
+        Writer type(byte type) {
+            out.write(type);
+            return this;
+        }
+
+        Writer varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+            return this;
+        }
+
+        Writer string(String s) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            varint(bytes.length);
+            out.writeBytes(bytes);
+            return this;
+        }
+
+        BinaryMessage toMessage() {
+            return new SharedBinaryMessage(out.toByteArray());
+        }
+    }
+
+    /**
+     * A binary frame that can be handed to many sessions: each send gets its own view of the bytes, so one
+     * session's write position never affects another's.
+     */
+    static final class SharedBinaryMessage extends BinaryMessage {
+        SharedBinaryMessage(byte[] payload) {
+            super(payload);
+        }
+
+        @Override
+        public ByteBuffer getPayload() {
+            return super.getPayload().duplicate();
+        }
+    }
+}
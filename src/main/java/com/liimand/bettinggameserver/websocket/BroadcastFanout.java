@@ -0,0 +1,144 @@
+package com.liimand.bettinggameserver.websocket;
+
+import com.liimand.bettinggameserver.service.GameMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends one pre-encoded frame to all sessions of a group (one group per table). A group keeps its sessions in
+ * {@link Slots}; blocks of {@value #BLOCK} consecutive slots are dealt out to the shards and shard {@code i} of
+ * every group is drained by worker {@code i}, so a worker walks contiguous runs of the slot array, a stalled
+ * socket only delays its shard and frames reach each session in broadcast order. With zero threads frames are
+ * sent on the caller's thread.
+ */
+@Component
+public class BroadcastFanout {
+    private static final int BLOCK_BITS = 4, BLOCK = 1 << BLOCK_BITS;
+
+    private final ExecutorService[] workers;
+    private final GameMetrics metrics;
+    private final AtomicInteger sessions = new AtomicInteger();
+
+    private final AtomicLong broadcasts = new AtomicLong();
+    private final AtomicLong shardRuns = new AtomicLong();
+    private final AtomicLong shardNanosTotal = new AtomicLong();
+    private final AtomicLong shardNanosMax = new AtomicLong();
+    private volatile long lastBroadcastNanos;
+
+    public BroadcastFanout(int threads) {
+        this(threads, GameMetrics.noop());
+    }
+
+    @Autowired
+    public BroadcastFanout(@Value("${game.ws.fanout-threads:0}") int threads, GameMetrics metrics) {
+        this.metrics = metrics;
+        this.workers = new ExecutorService[Math.max(1, threads)];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = threads > 0 ? newWorker(i) : null;
+        }
+    }
+
+    public Group newGroup() {
+        return new Group();
+    }
+
+    public int sessionCount() {
+        return sessions.get();
+    }
+
+    public Stats stats() {
+        long runs = shardRuns.get();
+        return new Stats(broadcasts.get(), runs,
+                runs == 0 ? 0 : shardNanosTotal.get() / runs,
+                shardNanosMax.get(), lastBroadcastNanos);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ExecutorService worker : workers) {
+            if (worker != null) worker.shutdownNow();
+        }
+    }
+
+    private void shardDone(Round round, long shardNanos) {
+        if (round.remaining.decrementAndGet() == 0) {
+            lastBroadcastNanos = System.nanoTime() - round.startNanos;
+            metrics.broadcastSent(lastBroadcastNanos);
+        }
+        shardNanosTotal.addAndGet(shardNanos);
+        shardNanosMax.accumulateAndGet(shardNanos, Math::max);
+        shardRuns.incrementAndGet();
+    }
+
+    private static ExecutorService newWorker(int index) {
+        return Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "ws-fanout-" + index);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public record Stats(long broadcasts, long shardRuns, long avgShardNanos, long maxShardNanos,
+                        long lastBroadcastNanos) {}
+
+    private record Round(long startNanos, AtomicInteger remaining) {
+        Round(long startNanos, int shards) { this(startNanos, new AtomicInteger(shards)); }
+    }
+
+    public final class Group {
+        private final Slots<WebSocketSession> members = new Slots<>();
+
+        private Group() {}
+
+        /**
+         * Adds the session and returns its slot, for {@link #unregister(int, WebSocketSession)}.
+         */
+        public int register(WebSocketSession session) {
+            int slot = members.add(session);
+            sessions.incrementAndGet();
+            return slot;
+        }
+
+        public void unregister(int slot, WebSocketSession session) {
+            if (members.remove(slot, session)) sessions.decrementAndGet();
+        }
+
+        public int sessionCount() {
+            return members.size();
+        }
+
+        public void broadcast(WebSocketMessage<?> frame) {
+            broadcasts.incrementAndGet();
+            Round round = new Round(System.nanoTime(), workers.length);
+            for (int i = 0; i < workers.length; i++) {
+                int shard = i;
+                if (workers[i] == null) send(shard, frame, round);
+                else workers[i].execute(() -> send(shard, frame, round));
+            }
+        }
+
+        private void send(int shard, WebSocketMessage<?> frame, Round round) {
+            long start = System.nanoTime();
+            int limit = members.limit(), stride = workers.length << BLOCK_BITS;
+            for (int block = shard << BLOCK_BITS; block < limit; block += stride) {
+                for (int i = block, end = Math.min(block + BLOCK, limit); i < end; i++) {
+                    WebSocketSession s = members.get(i);
+                    if (s != null && s.isOpen()) {
+                        try { s.sendMessage(frame); } catch (IOException ignored) {}
+                    }
+                }
+            }
+            shardDone(round, System.nanoTime() - start);
+        }
+    }
+}
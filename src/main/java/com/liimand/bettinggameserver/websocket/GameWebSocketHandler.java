@@ -2,39 +2,98 @@ package com.liimand.bettinggameserver.websocket;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.liimand.bettinggameserver.domain.Bet;
+import com.liimand.bettinggameserver.domain.Money;
 import com.liimand.bettinggameserver.domain.PlaceBetResult;
 import com.liimand.bettinggameserver.domain.RoundInfo;
 import com.liimand.bettinggameserver.domain.WinnerInfo;
 import com.liimand.bettinggameserver.service.GameListener;
 import com.liimand.bettinggameserver.service.GameService;
+import com.liimand.bettinggameserver.service.PlayerRegistry;
+import com.liimand.bettinggameserver.websocket.SessionRegistry.Connection;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.*;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Component
 @RequiredArgsConstructor
-public class GameWebSocketHandler implements WebSocketHandler, GameListener {
+public class GameWebSocketHandler implements WebSocketHandler {
+
+    public static final String TABLE_ATTRIBUTE = "tableId";
+    public static final String BINARY_PROTOCOL = "game-binary.v1";
+    static final int MAX_IDEMPOTENCY_KEY = 128;
+    private static final String TOMCAT_BLOCKING_SEND_TIMEOUT = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+    private static final TextMessage RATE_LIMITED_TEXT =
+            new TextMessage("{\"type\":\"RATE_LIMITED\",\"message\":\"too many requests\"}");
+    private static final BinaryMessage RATE_LIMITED_BINARY =
+            BinaryCodec.encode(new OutError("RATE_LIMITED", "too many requests"));
 
     private final GameService gameService;
+    private final BroadcastFanout fanout;
+    private final PlayerRegistry players;
+    private final BetRateLimiter rateLimiter;
     private final ObjectMapper mapper = new ObjectMapper();
-    private final Set<WebSocketSession> sessions = ConcurrentHashMap.newKeySet();
-    private final ConcurrentMap<String, Set<WebSocketSession>> sessionsByNick = new ConcurrentHashMap<>();
-    private final ConcurrentMap<String, String> nickBySessionId = new ConcurrentHashMap<>();
+    private final OutboundStats outboundStats = new OutboundStats();
+    private final SessionRegistry registry = new SessionRegistry();
+    private final ConcurrentMap<String, TableChannel> channels = new ConcurrentHashMap<>();
+
+    @Value("${game.ws.send-time-limit-ms:5000}")
+    private int sendTimeLimitMs = 5000;
+
+    @Value("${game.ws.outbound.capacity:256}")
+    private int outboundCapacity = 256;
+
+    @Value("${game.ws.outbound.overflow:DROP_OLDEST}")
+    private OutboundSession.OverflowPolicy outboundOverflow = OutboundSession.OverflowPolicy.DROP_OLDEST;
+
+    @Value("${game.ws.outbound.threads:8}")
+    private int outboundThreads = 8;
+
+    /** Writes the sessions' outbound queues; the caller's thread until {@link #init()} starts the pool. */
+    private Executor outboundDrain = Runnable::run;
+    private ExecutorService outboundPool;
 
     @jakarta.annotation.PostConstruct
-    void init() { gameService.registerListener(this); }
+    void init() {
+        gameService.registerTableListener(this::channel);
+        AtomicInteger n = new AtomicInteger();
+        outboundPool = Executors.newFixedThreadPool(outboundThreads, r -> {
+            Thread t = new Thread(r, "ws-outbound-" + n.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+        outboundDrain = outboundPool;
+    }
+
+    @jakarta.annotation.PreDestroy
+    void shutdown() {
+        if (outboundPool != null) outboundPool.shutdownNow();
+    }
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
-        sessions.add(session);
-        RoundInfo r = gameService.getCurrentRoundSnapshot();
+        if (session instanceof NativeWebSocketSession n) {
+            jakarta.websocket.Session ns = n.getNativeSession(jakarta.websocket.Session.class);
+            if (ns != null) ns.getUserProperties().put(TOMCAT_BLOCKING_SEND_TIMEOUT, (long) sendTimeLimitMs);
+        }
+        TableChannel channel = channelOf(session);
+        OutboundSession out = new OutboundSession(session, outboundCapacity, outboundOverflow, outboundStats,
+                outboundDrain);
+        rateLimiter.opened(session);
+        registry.add(new Connection(session, out, channel.group(session).register(out)));
+        RoundInfo r = gameService.getCurrentRoundSnapshot(channel.tableId);
         if (r != null) {
             send(session, new OutRoundOpened(r.roundId(), r.bettingClosesAt().toEpochMilli()));
             if (r.winningNumber() != null) {
@@ -45,9 +104,17 @@ public class GameWebSocketHandler implements WebSocketHandler, GameListener {
 
     @Override
     public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
-        if (!(message instanceof TextMessage tm)) return;
+        if (!rateLimiter.allowFrame(session)) {
+            rateLimited(session); return;
+        }
         try {
-            InMessage in = mapper.readValue(tm.getPayload(), InMessage.class);
+            InMessage in;
+            if (message instanceof TextMessage tm) in = mapper.readValue(tm.getPayload(), InMessage.class);
+            else if (message instanceof BinaryMessage bm) in = BinaryCodec.decode(bm.getPayload());
+            else return;
+            if ("BET_BATCH".equalsIgnoreCase(in.type)) {
+                handleBatch(session, in); return;
+            }
             if (!"BET".equalsIgnoreCase(in.type)) return;
 
             if (in.nickname == null || in.nickname.isBlank()) {
@@ -59,11 +126,24 @@ public class GameWebSocketHandler implements WebSocketHandler, GameListener {
             if (in.amount == null || in.amount.compareTo(BigDecimal.ZERO) <= 0) {
                 send(session, new OutError("VALIDATION", "amount must be > 0")); return;
             }
+            if (!Money.isRepresentable(in.amount)) {
+                send(session, new OutError("VALIDATION", "amount must have at most 2 decimals")); return;
+            }
+            if (in.idempotencyKey != null && in.idempotencyKey.length() > MAX_IDEMPOTENCY_KEY) {
+                send(session, new OutError("VALIDATION", "idempotencyKey must be at most " + MAX_IDEMPOTENCY_KEY + " characters")); return;
+            }
 
-            PlaceBetResult res = gameService.placeBet(new Bet(in.nickname.trim(), in.number, in.amount));
+            String nickname = in.nickname.trim();
+            if (!rateLimiter.allowPlayer(players.find(nickname))) {
+                rateLimited(session); return;
+            }
+
+            TableChannel channel = channelOf(session);
+            PlaceBetResult res = gameService.placeBet(channel.tableId,
+                    new Bet(nickname, in.number, Money.toMinorUnits(in.amount)), in.idempotencyKey);
             switch (res) {
                 case ACCEPTED -> {
-                    bindSessionToNickname(session, in.nickname.trim());
+                    bindSessionToPlayer(channel, session, nickname);
                     send(session, new OutAck("BET_ACCEPTED"));
                 }
                 case DUPLICATE -> send(session, new OutError("DUPLICATE", "bet already placed this round"));
@@ -72,10 +152,36 @@ public class GameWebSocketHandler implements WebSocketHandler, GameListener {
             }
 
         } catch (Exception e) {
-            send(session, new OutError("BAD_JSON", e.getMessage()));
+            send(session, new OutError(message instanceof BinaryMessage ? "BAD_FRAME" : "BAD_JSON", e.getMessage()));
         }
     }
 
+    private void handleBatch(WebSocketSession session, InMessage in) throws IOException {
+        int max = gameService.getMaxBatchSize();
+        if (in.bets == null || in.bets.isEmpty() || in.bets.size() > max) {
+            send(session, new OutError("VALIDATION", "batch must contain 1.." + max + " bets")); return;
+        }
+        // each bet takes a token from its player's bucket; refused ones never reach the table
+        List<PlaceBetResult> results = new ArrayList<>(Collections.nCopies(in.bets.size(), PlaceBetResult.RATE_LIMITED));
+        List<Bet> bets = new ArrayList<>(in.bets.size());
+        int[] positions = new int[in.bets.size()];
+        for (int i = 0; i < in.bets.size(); i++) {
+            InMessage b = in.bets.get(i);
+            if (b != null && b.nickname != null && !rateLimiter.allowPlayer(players.find(b.nickname.trim()))) continue;
+            positions[bets.size()] = i;
+            bets.add(b == null ? null : new Bet(b.nickname, b.number, Money.toMinorUnitsOrZero(b.amount)));
+        }
+        TableChannel channel = channelOf(session);
+        List<PlaceBetResult> placed = bets.isEmpty() ? List.of() : gameService.placeBets(channel.tableId, bets);
+        for (int i = 0; i < placed.size(); i++) {
+            results.set(positions[i], placed.get(i));
+            if (placed.get(i) == PlaceBetResult.ACCEPTED) {
+                bindSessionToPlayer(channel, session, bets.get(i).getNickname().trim());
+            }
+        }
+        send(session, new OutBatchResult(results));
+    }
+
     @Override
     public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
         try { send(session, new OutError("TRANSPORT", exception.getMessage())); } catch (Exception ignored) {}
@@ -83,14 +189,15 @@ public class GameWebSocketHandler implements WebSocketHandler, GameListener {
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
-        sessions.remove(session);
-        String nick = nickBySessionId.remove(session.getId());
-        if (nick != null) {
-            Set<WebSocketSession> set = sessionsByNick.get(nick);
-            if (set != null) {
-                set.remove(session);
-                if (set.isEmpty()) sessionsByNick.remove(nick);
-            }
+        TableChannel channel = channelOf(session);
+        Connection c = registry.remove(session);
+        if (c != null && c.out != null) channel.group(session).unregister(c.groupSlot, c.out);
+        rateLimiter.closed(session);
+        if (c == null) return;
+        for (int i = 0, n = c.players.size(); i < n; i++) {
+            int player = c.players.get(i);
+            channel.sessionsByPlayer.remove(player, c.target());
+            players.release(player);
         }
     }
 
@@ -99,51 +206,172 @@ public class GameWebSocketHandler implements WebSocketHandler, GameListener {
         return false;
     }
 
-    @Override
-    public void onRoundOpened(long roundId, long closesAtMs) {
-        broadcast(new OutRoundOpened(roundId, closesAtMs));
+    public BroadcastFanout.Stats fanoutStats() {
+        return fanout.stats();
     }
 
-    @Override
-    public void onRoundSettled(long roundId, int winningNumber) {
-        broadcast(new OutRoundSettled(roundId, winningNumber));
+    public OutboundStats.Snapshot outboundStats() {
+        return outboundStats.snapshot(registry.outbound());
     }
 
-    @Override
-    public void onWinnersAnnounced(long roundId, List<WinnerInfo> winners) {
-        var payload = winners.stream()
-                .map(w -> new OutWinners.Winner(w.getNickname(), w.getWinnings()))
-                .toList();
-        broadcast(new OutWinners(roundId, payload));
+    OutboundStats outboundCounters() {
+        return outboundStats;
     }
 
-    @Override
-    public void onPlayerResult(long roundId, String nickname, BigDecimal payout) {
-        Set<WebSocketSession> set = sessionsByNick.get(nickname);
-        if (set == null || set.isEmpty()) return;
-        OutYourResult msg = new OutYourResult(roundId, payout.signum() > 0 ? "WIN" : "LOSE", payout);
-        for (WebSocketSession s : set) {
-            if (s.isOpen()) try { send(s, msg); } catch (IOException ignored) {}
+    TableChannel channel(String tableId) {
+        return channels.computeIfAbsent(tableId, TableChannel::new);
+    }
+
+    private TableChannel channelOf(WebSocketSession session) {
+        Object tableId = session.getAttributes().get(TABLE_ATTRIBUTE);
+        return channel(tableId instanceof String id ? id : GameService.DEFAULT_TABLE);
+    }
+
+    /**
+     * Routes {@code nickname}'s results to this session until it closes. The session pins the player id, so the
+     * id keeps meaning this nickname for as long as it is bound.
+     */
+    private void bindSessionToPlayer(TableChannel channel, WebSocketSession session, String nickname) {
+        Connection c = registry.get(session);
+        // a session the handler never saw open gets its slot here
+        if (c == null) c = registry.add(new Connection(session, null, -1));
+        // a bound id is pinned to its nickname, so finding it is enough to know the session already has it
+        if (c.players.contains(players.find(nickname))) return;
+        int player = players.acquire(nickname);
+        if (player < 0) return;
+        c.players.add(player);
+        channel.sessionsByPlayer.add(player, c.target());
+    }
+
+    private TextMessage encode(Object payload) {
+        try { return new TextMessage(mapper.writeValueAsString(payload)); } catch (Exception e) { return null; }
+    }
+
+    private WebSocketSession outbound(WebSocketSession session) {
+        Connection c = registry.get(session);
+        return c != null ? c.target() : session;
+    }
+
+    private static boolean isBinary(WebSocketSession session) {
+        return BINARY_PROTOCOL.equals(session.getAcceptedProtocol());
+    }
+
+    private void sendCritical(WebSocketSession s, WebSocketMessage<?> frame) {
+        if (frame == null) return;
+        try {
+            if (s instanceof OutboundSession o) o.sendCritical(frame);
+            else s.sendMessage(frame);
+        } catch (IOException ignored) {
+            // OutboundSession closes the session itself, a plain session is gone anyway
         }
     }
 
-    private void bindSessionToNickname(WebSocketSession session, String nickname) {
-        nickBySessionId.put(session.getId(), nickname);
-        sessionsByNick.computeIfAbsent(nickname, n -> ConcurrentHashMap.newKeySet()).add(session);
+    /**
+     * Answers an over-limit frame with a pre-encoded error, without parsing it.
+     */
+    private void rateLimited(WebSocketSession s) throws IOException {
+        outbound(s).sendMessage(isBinary(s) ? RATE_LIMITED_BINARY : RATE_LIMITED_TEXT);
     }
 
-    private void broadcast(Object payload) {
-        String json;
-        try { json = mapper.writeValueAsString(payload); } catch (Exception e) { return; }
-        for (WebSocketSession s : sessions) {
-            if (s.isOpen()) {
-                try { s.sendMessage(new TextMessage(json)); } catch (IOException ignored) {}
+    private void send(WebSocketSession s, Object payload) throws IOException {
+        outbound(s).sendMessage(isBinary(s)
+                ? BinaryCodec.encode(payload)
+                : new TextMessage(mapper.writeValueAsString(payload)));
+    }
+
+    /**
+     * One payload encoded at most once per protocol, for delivery to many sessions.
+     */
+    private final class Frames {
+        private final Object payload;
+        private TextMessage text;
+        private BinaryMessage binary;
+
+        Frames(Object payload) { this.payload = payload; }
+
+        WebSocketMessage<?> of(WebSocketSession s) {
+            if (isBinary(s)) {
+                if (binary == null) binary = BinaryCodec.encode(payload);
+                return binary;
             }
+            if (text == null) text = encode(payload);
+            return text;
         }
     }
 
-    private void send(WebSocketSession s, Object payload) throws IOException {
-        s.sendMessage(new TextMessage(mapper.writeValueAsString(payload)));
+    /**
+     * Sessions and event delivery of one table.
+     */
+    final class TableChannel implements GameListener {
+        final String tableId;
+        final BroadcastFanout.Group jsonGroup = fanout.newGroup();
+        final BroadcastFanout.Group binaryGroup = fanout.newGroup();
+        final PlayerSessions sessionsByPlayer = new PlayerSessions(players.capacity());
+
+        TableChannel(String tableId) { this.tableId = tableId; }
+
+        BroadcastFanout.Group group(WebSocketSession session) {
+            return isBinary(session) ? binaryGroup : jsonGroup;
+        }
+
+        @Override
+        public void onRoundOpened(long roundId, long closesAtMs) {
+            broadcast(new OutRoundOpened(roundId, closesAtMs));
+        }
+
+        @Override
+        public void onRoundSettled(long roundId, int winningNumber) {
+            broadcast(new OutRoundSettled(roundId, winningNumber));
+        }
+
+        @Override
+        public void onWinnersAnnounced(long roundId, List<WinnerInfo> winners) {
+            var payload = winners.stream()
+                    .map(w -> new OutWinners.Winner(w.getNickname(), w.getWinnings()))
+                    .toList();
+            broadcast(new OutWinners(roundId, payload));
+        }
+
+        @Override
+        public void onPlayerResult(long roundId, String nickname, long payoutCents) {
+            int player = players.find(nickname);
+            if (player < 0) return;
+            WebSocketSession[] targets = sessionsByPlayer.get(player);
+            if (targets.length == 0) return;
+            Frames frames = new Frames(new OutYourResult(roundId, payoutCents > 0 ? "WIN" : "LOSE", Money.toDecimal(payoutCents)));
+            for (WebSocketSession s : targets) {
+                if (s.isOpen()) sendCritical(s, frames.of(s));
+            }
+        }
+
+        @Override
+        public void onPlayersLost(long roundId, List<String> nicknames) {
+            Frames frames = new Frames(new OutYourResult(roundId, "LOSE", Money.toDecimal(0)));
+            for (String nickname : nicknames) {
+                int player = players.find(nickname);
+                if (player < 0) continue;
+                for (WebSocketSession s : sessionsByPlayer.get(player)) {
+                    if (s.isOpen()) sendCritical(s, frames.of(s));
+                }
+            }
+        }
+
+        @Override
+        public void onPoolStats(long roundId, int[] counts, long[] stakeCents) {
+            BigDecimal[] stakes = new BigDecimal[stakeCents.length];
+            for (int i = 0; i < stakes.length; i++) stakes[i] = Money.toDecimal(stakeCents[i]);
+            broadcast(new OutPoolStats(roundId, counts, stakes));
+        }
+
+        private void broadcast(Object payload) {
+            if (jsonGroup.sessionCount() > 0) {
+                TextMessage frame = encode(payload);
+                if (frame != null) jsonGroup.broadcast(frame);
+            }
+            if (binaryGroup.sessionCount() > 0) {
+                binaryGroup.broadcast(BinaryCodec.encode(payload));
+            }
+        }
     }
 
     static final class InMessage {
@@ -151,6 +379,8 @@ public class GameWebSocketHandler implements WebSocketHandler, GameListener {
         public String nickname;
         public int number;
         public BigDecimal amount;
+        public List<InMessage> bets;
+        public String idempotencyKey;
     }
 
     record OutRoundOpened(String type, long roundId, long closesAtMs) {
@@ -160,11 +390,17 @@ public class GameWebSocketHandler implements WebSocketHandler, GameListener {
         OutRoundSettled(long roundId, int winningNumber) { this("ROUND_SETTLED", roundId, winningNumber); }
     }
     record OutAck(String type) {}
+    record OutBatchResult(String type, List<PlaceBetResult> results) {
+        OutBatchResult(List<PlaceBetResult> results) { this("BET_BATCH_RESULT", results); }
+    }
     record OutError(String type, String message) {}
     record OutWinners(String type, long roundId, List<Winner> winners) {
         OutWinners(long roundId, List<Winner> winners) { this("WINNERS", roundId, winners); }
         record Winner(String nickname, java.math.BigDecimal winnings) {}
     }
+    record OutPoolStats(String type, long roundId, int[] counts, BigDecimal[] stakes) {
+        OutPoolStats(long roundId, int[] counts, BigDecimal[] stakes) { this("POOL_STATS", roundId, counts, stakes); }
+    }
     record OutYourResult(String type, long roundId, String result, java.math.BigDecimal payout) {
         OutYourResult(long roundId, String result, java.math.BigDecimal payout) { this("YOUR_RESULT", roundId, result, payout); }
     }
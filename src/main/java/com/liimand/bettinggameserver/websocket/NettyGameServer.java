@@ -0,0 +1,128 @@
+package com.liimand.bettinggameserver.websocket;
+
+import com.liimand.bettinggameserver.service.GameService;
+import com.liimand.bettinggameserver.service.UnknownTableException;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.netty.http.server.WebsocketServerSpec;
+
+/**
+ * Serves the {@code /ws/game} protocol on Reactor Netty, next to or instead of the servlet endpoint
+ * ({@code game.transport=netty|both}). Connections are handed to the same {@link GameWebSocketHandler}, so they
+ * join the same table channels and receive the same {@code GameListener} events; only the I/O differs: event
+ * loop reads, and writes through a bounded sink that Netty drains with backpressure.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnExpression("'${game.transport:servlet}' != 'servlet'")
+public class NettyGameServer implements SmartLifecycle {
+    private static final String PATH = "/ws/game";
+
+    private final GameService gameService;
+    private final GameWebSocketHandler handler;
+    private volatile DisposableServer server;
+
+    @Value("${game.transport.netty.port:8081}")
+    private int port = 8081;
+
+    @Value("${game.transport.netty.outbound-frames:1024}")
+    private int outboundFrames = 1024;
+
+    /**
+     * Binds in the default lifecycle phase, after {@link GameService} has recovered the journal.
+     */
+    @Override
+    public void start() {
+        WebsocketServerSpec spec = WebsocketServerSpec.builder()
+                .protocols(GameWebSocketHandler.BINARY_PROTOCOL)
+                .build();
+        server = HttpServer.create()
+                .port(port)
+                .route(routes -> routes
+                        .get(PATH, (req, res) -> upgrade(GameService.DEFAULT_TABLE, req, res, spec))
+                        .get(PATH + "/{tableId}", (req, res) -> upgrade(req.param("tableId"), req, res, spec)))
+                .bindNow();
+        log.info("Netty game socket listening on port {}", server.port());
+    }
+
+    @Override
+    public void stop() {
+        DisposableServer s = server;
+        server = null;
+        if (s != null) s.disposeNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    public int port() {
+        return server.port();
+    }
+
+    private Publisher<Void> upgrade(String tableId, HttpServerRequest req, HttpServerResponse res,
+                                    WebsocketServerSpec spec) {
+        String table;
+        try {
+            table = gameService.table(tableId).getId();
+        } catch (UnknownTableException e) {
+            return res.status(HttpResponseStatus.NOT_FOUND).send();
+        }
+        return res.sendWebsocket((in, out) -> serve(new NettyWebSocketSession(req, in, out, table, outboundFrames)), spec);
+    }
+
+    private Mono<Void> serve(NettyWebSocketSession session) {
+        try {
+            handler.afterConnectionEstablished(session);
+        } catch (Exception e) {
+            closed(session);
+            return Mono.error(e);
+        }
+        Mono<Void> receive = session.inbound().aggregateFrames().receiveFrames()
+                .doOnNext(frame -> dispatch(session, frame))
+                .then()
+                .doFinally(signal -> closed(session));
+        return Mono.when(receive, session.outbound().sendObject(session.frames()));
+    }
+
+    private void dispatch(NettyWebSocketSession session, WebSocketFrame frame) {
+        try {
+            if (frame instanceof TextWebSocketFrame text) {
+                handler.handleMessage(session, new TextMessage(text.text()));
+            } else if (frame instanceof BinaryWebSocketFrame binary) {
+                handler.handleMessage(session, new BinaryMessage(ByteBufUtil.getBytes(binary.content())));
+            }
+        } catch (Exception e) {
+            log.debug("Failed to handle frame from {}", session.getId(), e);
+        }
+    }
+
+    private void closed(NettyWebSocketSession session) {
+        session.terminate();
+        try {
+            handler.afterConnectionClosed(session, CloseStatus.NORMAL);
+        } catch (Exception e) {
+            log.debug("Failed to unbind {}", session.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.liimand.bettinggameserver.websocket;
+
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.handler.codec.http.websocketx.WebSocketFrame;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.websocket.WebsocketInbound;
+import reactor.netty.http.websocket.WebsocketOutbound;
+import reactor.util.concurrent.Queues;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A Reactor Netty connection seen as a {@link WebSocketSession}, so {@link GameWebSocketHandler} serves it the
+ * same way as a servlet one. {@code sendMessage} never blocks: frames go into a bounded unicast sink that Netty
+ * drains as the channel becomes writable, and a full sink fails the send, which makes {@link OutboundSession}
+ * evict the connection.
+ */
+final class NettyWebSocketSession implements WebSocketSession {
+    private static final AtomicLong IDS = new AtomicLong();
+
+    private final String id = Long.toHexString(IDS.incrementAndGet());
+    private final URI uri;
+    private final HttpHeaders headers = new HttpHeaders();
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+    private final InetSocketAddress localAddress;
+    private final InetSocketAddress remoteAddress;
+    private final WebsocketInbound inbound;
+    private final WebsocketOutbound outbound;
+    private final Sinks.Many<WebSocketFrame> frames;
+    private volatile boolean open = true;
+    private int textLimit = 64 * 1024;
+    private int binaryLimit = 64 * 1024;
+
+    NettyWebSocketSession(HttpServerRequest request, WebsocketInbound inbound, WebsocketOutbound outbound,
+                          String tableId, int outboundFrames) {
+        this.uri = URI.create("ws://" + request.requestHeaders().get(HttpHeaderNames.HOST, "localhost")
+                + request.uri());
+        request.requestHeaders().forEach(h -> headers.add(h.getKey(), h.getValue()));
+        this.localAddress = inet(request.hostAddress());
+        this.remoteAddress = inet(request.remoteAddress());
+        this.inbound = inbound;
+        this.outbound = outbound;
+        this.frames = Sinks.many().unicast().onBackpressureBuffer(Queues.<WebSocketFrame>get(outboundFrames).get());
+        attributes.put(GameWebSocketHandler.TABLE_ATTRIBUTE, tableId);
+    }
+
+    WebsocketInbound inbound() { return inbound; }
+
+    WebsocketOutbound outbound() { return outbound; }
+
+    Flux<WebSocketFrame> frames() { return frames.asFlux(); }
+
+    /**
+     * Called once the connection is gone; completes the outbound stream.
+     */
+    void terminate() {
+        open = false;
+        frames.tryEmitComplete();
+    }
+
+    @Override
+    public synchronized void sendMessage(WebSocketMessage<?> message) throws IOException {
+        WebSocketFrame frame;
+        if (message instanceof TextMessage tm) frame = new TextWebSocketFrame(Unpooled.wrappedBuffer(tm.asBytes()));
+        else if (message instanceof BinaryMessage bm) frame = new BinaryWebSocketFrame(Unpooled.wrappedBuffer(bm.getPayload()));
+        else return;
+        Sinks.EmitResult result = frames.tryEmitNext(frame);
+        if (result.isFailure()) throw new IOException("Outbound frame not accepted: " + result);
+    }
+
+    @Override
+    public void close() {
+        close(CloseStatus.NORMAL);
+    }
+
+    @Override
+    public void close(CloseStatus status) {
+        if (!open) return;
+        open = false;
+        outbound.sendClose(status.getCode(), status.getReason()).subscribe(null, e -> {});
+        frames.tryEmitComplete();
+    }
+
+    @Override
+    public boolean isOpen() { return open; }
+
+    @Override
+    public String getId() { return id; }
+
+    @Override
+    public URI getUri() { return uri; }
+
+    @Override
+    public HttpHeaders getHandshakeHeaders() { return headers; }
+
+    @Override
+    public Map<String, Object> getAttributes() { return attributes; }
+
+    @Override
+    public Principal getPrincipal() { return null; }
+
+    @Override
+    public InetSocketAddress getLocalAddress() { return localAddress; }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() { return remoteAddress; }
+
+    @Override
+    public String getAcceptedProtocol() { return inbound.selectedSubprotocol(); }
+
+    @Override
+    public void setTextMessageSizeLimit(int limit) { this.textLimit = limit; }
+
+    @Override
+    public int getTextMessageSizeLimit() { return textLimit; }
+
+    @Override
+    public void setBinaryMessageSizeLimit(int limit) { this.binaryLimit = limit; }
+
+    @Override
+    public int getBinaryMessageSizeLimit() { return binaryLimit; }
+
+    @Override
+    public List<WebSocketExtension> getExtensions() { return List.of(); }
+
+    private static InetSocketAddress inet(SocketAddress address) {
+        return address instanceof InetSocketAddress a ? a : null;
+    }
+}
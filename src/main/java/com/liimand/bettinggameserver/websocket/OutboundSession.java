@@ -0,0 +1,135 @@
+package com.liimand.bettinggameserver.websocket;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Session wrapper with a bounded outbound queue. Senders only ever enqueue; the queue is written out by one drain
+ * task at a time on the {@code drain} executor, so a broadcast worker never waits for a slow client, and a
+ * stalled socket only holds up its own drain task. When the queue is full the overflow policy decides between
+ * dropping the oldest non-critical frame and closing the session; critical frames are never dropped, if there
+ * is no room for them the session is closed instead.
+ */
+public class OutboundSession extends WebSocketSessionDecorator {
+
+    public enum OverflowPolicy { DROP_OLDEST, CLOSE }
+
+    public static final CloseStatus SLOW_CONSUMER = CloseStatus.SESSION_NOT_RELIABLE.withReason("Slow consumer");
+    public static final CloseStatus SEND_FAILED = CloseStatus.SESSION_NOT_RELIABLE.withReason("Send failed");
+
+    private final int capacity;
+    private final OverflowPolicy overflow;
+    private final OutboundStats stats;
+    private final Executor drain;
+    private final ArrayDeque<Frame> queue = new ArrayDeque<>();
+    /** Guarded by {@code queue}. */
+    private boolean draining;
+    private volatile boolean evicted;
+
+    public OutboundSession(WebSocketSession delegate, int capacity, OverflowPolicy overflow, OutboundStats stats,
+                           Executor drain) {
+        super(delegate);
+        this.capacity = capacity;
+        this.overflow = overflow;
+        this.stats = stats;
+        this.drain = drain;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        send(message, false);
+    }
+
+    public void sendCritical(WebSocketMessage<?> message) throws IOException {
+        send(message, true);
+    }
+
+    public int queueDepth() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    public boolean isEvicted() {
+        return evicted;
+    }
+
+    private void send(WebSocketMessage<?> message, boolean critical) throws IOException {
+        if (evicted) return;
+        boolean enqueued, start = false;
+        synchronized (queue) {
+            enqueued = queue.size() < capacity || makeRoom(critical);
+            if (enqueued) {
+                queue.addLast(new Frame(message, critical));
+                start = !draining;
+                draining = true;
+            }
+        }
+        if (!enqueued) {
+            if (critical || overflow == OverflowPolicy.CLOSE) evict(SLOW_CONSUMER);
+            else stats.frameDropped();
+            return;
+        }
+        if (start) {
+            try {
+                drain.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                evict(SEND_FAILED);
+            }
+        }
+    }
+
+    private boolean makeRoom(boolean critical) {
+        if (overflow != OverflowPolicy.DROP_OLDEST) return false;
+        for (Iterator<Frame> it = queue.iterator(); it.hasNext(); ) {
+            if (!it.next().critical()) {
+                it.remove();
+                stats.frameDropped();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void drain() {
+        try {
+            for (;;) {
+                Frame f;
+                synchronized (queue) {
+                    f = evicted ? null : queue.pollFirst();
+                    if (f == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                getDelegate().sendMessage(f.message());
+            }
+        } catch (IOException | RuntimeException e) {
+            stats.sendFailed();
+            evict(SEND_FAILED);
+        }
+    }
+
+    private void evict(CloseStatus status) {
+        synchronized (queue) {
+            if (evicted) return;
+            evicted = true;
+            queue.clear();
+        }
+        stats.sessionEvicted();
+        try {
+            getDelegate().close(status);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private record Frame(WebSocketMessage<?> message, boolean critical) {}
+}
@@ -0,0 +1,35 @@
+package com.liimand.bettinggameserver.websocket;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class OutboundStats {
+    private final LongAdder droppedFrames = new LongAdder();
+    private final LongAdder evictedSessions = new LongAdder();
+    private final LongAdder sendFailures = new LongAdder();
+
+    void frameDropped() { droppedFrames.increment(); }
+
+    void sessionEvicted() { evictedSessions.increment(); }
+
+    void sendFailed() { sendFailures.increment(); }
+
+    long droppedFrames() { return droppedFrames.sum(); }
+
+    long evictedSessions() { return evictedSessions.sum(); }
+
+    long sendFailures() { return sendFailures.sum(); }
+
+    public Snapshot snapshot(Iterable<OutboundSession> sessions) {
+        long queued = 0;
+        int maxDepth = 0;
+        for (OutboundSession s : sessions) {
+            int depth = s.queueDepth();
+            queued += depth;
+            maxDepth = Math.max(maxDepth, depth);
+        }
+        return new Snapshot(queued, maxDepth, droppedFrames.sum(), evictedSessions.sum(), sendFailures.sum());
+    }
+
+    public record Snapshot(long queuedFrames, int maxQueueDepth, long droppedFrames, long evictedSessions,
+                           long sendFailures) {}
+}
@@ -0,0 +1,73 @@
+package com.liimand.bettinggameserver.websocket;
+
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Sessions bound to each player id of one table. Ids index straight into chunks of slots allocated on first
+ * use; a slot holds a copy-on-write array, as a player rarely has more than one session.
+ */
+final class PlayerSessions {
+    private static final int CHUNK_BITS = 12, CHUNK = 1 << CHUNK_BITS;
+    private static final WebSocketSession[] NONE = new WebSocketSession[0];
+
+    private final AtomicReferenceArray<AtomicReferenceArray<WebSocketSession[]>> chunks;
+
+    PlayerSessions(int maxPlayers) {
+        this.chunks = new AtomicReferenceArray<>((maxPlayers + CHUNK - 1) >>> CHUNK_BITS);
+    }
+
+    WebSocketSession[] get(int playerId) {
+        AtomicReferenceArray<WebSocketSession[]> chunk = chunks.get(playerId >>> CHUNK_BITS);
+        WebSocketSession[] sessions = chunk == null ? null : chunk.get(playerId & (CHUNK - 1));
+        return sessions == null ? NONE : sessions;
+    }
+
+    void add(int playerId, WebSocketSession session) {
+        AtomicReferenceArray<WebSocketSession[]> chunk = chunk(playerId);
+        int slot = playerId & (CHUNK - 1);
+        WebSocketSession[] prev, next;
+        do {
+            prev = chunk.get(slot);
+            if (prev == null) {
+                next = new WebSocketSession[]{session};
+            } else {
+                for (WebSocketSession s : prev) if (s == session) return;
+                next = Arrays.copyOf(prev, prev.length + 1);
+                next[prev.length] = session;
+            }
+        } while (!chunk.compareAndSet(slot, prev, next));
+    }
+
+    void remove(int playerId, WebSocketSession session) {
+        AtomicReferenceArray<WebSocketSession[]> chunk = chunks.get(playerId >>> CHUNK_BITS);
+        if (chunk == null) return;
+        int slot = playerId & (CHUNK - 1);
+        WebSocketSession[] prev, next;
+        do {
+            prev = chunk.get(slot);
+            if (prev == null) return;
+            int at = -1;
+            for (int i = 0; i < prev.length && at < 0; i++) if (prev[i] == session) at = i;
+            if (at < 0) return;
+            if (prev.length == 1) {
+                next = null;
+            } else {
+                next = new WebSocketSession[prev.length - 1];
+                System.arraycopy(prev, 0, next, 0, at);
+                System.arraycopy(prev, at + 1, next, at, prev.length - at - 1);
+            }
+        } while (!chunk.compareAndSet(slot, prev, next));
+    }
+
+    private AtomicReferenceArray<WebSocketSession[]> chunk(int playerId) {
+        AtomicReferenceArray<WebSocketSession[]> chunk = chunks.get(playerId >>> CHUNK_BITS);
+        if (chunk == null) {
+            chunks.compareAndSet(playerId >>> CHUNK_BITS, null, new AtomicReferenceArray<>(CHUNK));
+            chunk = chunks.get(playerId >>> CHUNK_BITS);
+        }
+        return chunk;
+    }
+}
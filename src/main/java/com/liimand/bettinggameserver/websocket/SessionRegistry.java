@@ -0,0 +1,148 @@
+package com.liimand.bettinggameserver.websocket;
+
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Open sessions of the WebSocket handler and what it tracks per session, in one {@link Slots} array. The slot
+ * index is kept in the session's attributes, so finding a session's {@link Connection} is an attribute read
+ * plus an array read, and connecting or disconnecting writes one slot instead of updating several hash maps.
+ * Results are routed by player id through {@link PlayerSessions}, which needs no per-nickname sets.
+ */
+final class SessionRegistry {
+    static final String SLOT_ATTRIBUTE = "sessionSlot";
+
+    private final Slots<Connection> slots = new Slots<>();
+
+    Connection add(Connection connection) {
+        int slot = slots.add(connection);
+        connection.session.getAttributes().put(SLOT_ATTRIBUTE, slot);
+        return connection;
+    }
+
+    Connection get(WebSocketSession session) {
+        Connection c = slots.get(slot(session));
+        return c != null && c.session == session ? c : null;
+    }
+
+    Connection remove(WebSocketSession session) {
+        int slot = slot(session);
+        Connection c = slots.get(slot);
+        if (c == null || c.session != session || !slots.remove(slot, c)) return null;
+        session.getAttributes().remove(SLOT_ATTRIBUTE);
+        return c;
+    }
+
+    int size() {
+        return slots.size();
+    }
+
+    List<OutboundSession> outbound() {
+        List<OutboundSession> out = new ArrayList<>(slots.size());
+        for (int i = 0, n = slots.limit(); i < n; i++) {
+            Connection c = slots.get(i);
+            if (c != null && c.out != null) out.add(c.out);
+        }
+        return out;
+    }
+
+    private static int slot(WebSocketSession session) {
+        return session.getAttributes().get(SLOT_ATTRIBUTE) instanceof Integer slot ? slot : -1;
+    }
+
+    /**
+     * A session, its outbound queue and broadcast slot, and the players it bet for.
+     */
+    static final class Connection {
+        final WebSocketSession session;
+        /** {@code null} for a session the handler never saw open. */
+        final OutboundSession out;
+        final int groupSlot;
+        final BoundPlayers players = new BoundPlayers();
+
+        Connection(WebSocketSession session, OutboundSession out, int groupSlot) {
+            this.session = session;
+            this.out = out;
+            this.groupSlot = groupSlot;
+        }
+
+        /**
+         * What results are sent through: the outbound queue if there is one.
+         */
+        WebSocketSession target() {
+            return out != null ? out : session;
+        }
+    }
+
+    /**
+     * Ids of the players a session placed bets for, in bind order; a session usually has exactly one. Membership is
+     * an open-addressing lookup by id, so an aggregator binding thousands of players does constant work per bet.
+     * Added to by the session's own message thread only; the closing thread reads {@code size} before the ids.
+     */
+    static final class BoundPlayers {
+        private static final int FREE = -1;
+
+        private volatile int[] ids = new int[1];
+        private volatile int size;
+        private int[] table = free(4);
+
+        boolean contains(int id) {
+            if (id < 0) return false;
+            int mask = table.length - 1;
+            for (int i = mix(id) & mask; ; i = (i + 1) & mask) {
+                int at = table[i];
+                if (at == id) return true;
+                if (at == FREE) return false;
+            }
+        }
+
+        /**
+         * Adds {@code id} unless it is already bound; returns whether it was added.
+         */
+        boolean add(int id) {
+            if (contains(id)) return false;
+            int n = size;
+            if ((n + 1) * 2 > table.length) rehash(table.length * 2);
+            insert(table, id);
+            int[] list = ids;
+            if (n == list.length) ids = list = Arrays.copyOf(list, n * 2);
+            list[n] = id;
+            size = n + 1;
+            return true;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int get(int index) {
+            return ids[index];
+        }
+
+        private void rehash(int capacity) {
+            int[] next = free(capacity);
+            for (int id : table) if (id != FREE) insert(next, id);
+            table = next;
+        }
+
+        private static void insert(int[] table, int id) {
+            int mask = table.length - 1;
+            int i = mix(id) & mask;
+            while (table[i] != FREE) i = (i + 1) & mask;
+            table[i] = id;
+        }
+
+        private static int mix(int id) {
+            return id * 0x9E3779B9;
+        }
+
+        private static int[] free(int capacity) {
+            int[] table = new int[capacity];
+            Arrays.fill(table, FREE);
+            return table;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.liimand.bettinggameserver.websocket;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Growable array of slots for values that come and go, such as open sessions. A value keeps its index until it
+ * is removed and freed indexes are handed out before new ones, so live values stay packed below
+ * {@link #limit()} and walking them is a scan of a few contiguous chunks. Adding and removing take the
+ * instance lock; reads don't.
+ */
+final class Slots<T> {
+    private static final int CHUNK_BITS = 12, CHUNK = 1 << CHUNK_BITS;
+
+    private volatile AtomicReferenceArray<T>[] chunks = newChunks(0);
+    private volatile int limit;
+    private volatile int size;
+    // guarded by this
+    private int[] free = new int[16];
+    private int freeCount;
+
+    synchronized int add(T value) {
+        int slot = freeCount > 0 ? free[--freeCount] : limit;
+        int c = slot >>> CHUNK_BITS;
+        if (c == chunks.length) {
+            AtomicReferenceArray<T>[] grown = Arrays.copyOf(chunks, c + 1);
+            grown[c] = new AtomicReferenceArray<>(CHUNK);
+            chunks = grown;
+        }
+        chunks[c].set(slot & (CHUNK - 1), value);
+        if (slot == limit) limit = slot + 1;
+        size++;
+        return slot;
+    }
+
+    /**
+     * Frees {@code slot} if it still holds {@code value}.
+     */
+    synchronized boolean remove(int slot, T value) {
+        if (slot < 0 || slot >= limit) return false;
+        if (!chunks[slot >>> CHUNK_BITS].compareAndSet(slot & (CHUNK - 1), value, null)) return false;
+        if (freeCount == free.length) free = Arrays.copyOf(free, freeCount * 2);
+        free[freeCount++] = slot;
+        size--;
+        return true;
+    }
+
+    T get(int slot) {
+        AtomicReferenceArray<T>[] cs = chunks;
+        int c = slot >>> CHUNK_BITS;
+        return slot >= 0 && c < cs.length ? cs[c].get(slot & (CHUNK - 1)) : null;
+    }
+
+    /**
+     * One past the highest slot ever used; every live value is below it.
+     */
+    int limit() {
+        return limit;
+    }
+
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> AtomicReferenceArray<T>[] newChunks(int n) {
+        return new AtomicReferenceArray[n];
+    }
+}
@@ -0,0 +1,45 @@
+package com.liimand.bettinggameserver.websocket;
+
+import com.liimand.bettinggameserver.service.GameService;
+import com.liimand.bettinggameserver.service.UnknownTableException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.Map;
+
+/**
+ * Binds a connection to the table in its path ({@code /ws/game/{tableId}}); plain {@code /ws/game} joins the
+ * default table. Unknown tables are refused with 404 before the upgrade.
+ */
+@Component
+@RequiredArgsConstructor
+public class TableHandshakeInterceptor implements HandshakeInterceptor {
+    private static final String PREFIX = "/ws/game/";
+
+    private final GameService gameService;
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String path = request.getURI().getPath();
+        int at = path.indexOf(PREFIX);
+        String tableId = at < 0 ? GameService.DEFAULT_TABLE : path.substring(at + PREFIX.length());
+        try {
+            attributes.put(GameWebSocketHandler.TABLE_ATTRIBUTE, gameService.table(tableId).getId());
+            return true;
+        } catch (UnknownTableException e) {
+            response.setStatusCode(HttpStatus.NOT_FOUND);
+            return false;
+        }
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.liimand.bettinggameserver.websocket;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Session and outbound queue meters, read from the handler's own counters when the registry is scraped.
+ */
+@Component
+@RequiredArgsConstructor
+public class WebSocketMetrics implements MeterBinder {
+    private final GameWebSocketHandler handler;
+    private final BroadcastFanout fanout;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        OutboundStats stats = handler.outboundCounters();
+        Gauge.builder("game.ws.sessions", fanout, BroadcastFanout::sessionCount)
+                .description("Open WebSocket sessions")
+                .register(registry);
+        FunctionCounter.builder("game.ws.send.failures", stats, OutboundStats::sendFailures)
+                .description("Sends that failed and closed their session")
+                .register(registry);
+        FunctionCounter.builder("game.ws.outbound.dropped", stats, OutboundStats::droppedFrames)
+                .description("Frames dropped from full per-session queues")
+                .register(registry);
+        FunctionCounter.builder("game.ws.sessions.evicted", stats, OutboundStats::evictedSessions)
+                .description("Sessions closed as slow consumers")
+                .register(registry);
+    }
+}
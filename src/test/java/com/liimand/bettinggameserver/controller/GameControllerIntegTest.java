@@ -7,16 +7,27 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -27,6 +38,13 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 })
 class GameControllerIntegTest {
 
+    @DynamicPropertySource
+    static void archive(DynamicPropertyRegistry registry) throws IOException {
+        Path dir = Files.createTempDirectory("round-archive");
+        registry.add("game.archive.enabled", () -> "true");
+        registry.add("game.archive.dir", dir::toString);
+    }
+
     @Autowired
     private MockMvc mvc;
     @Autowired
@@ -81,6 +99,202 @@ class GameControllerIntegTest {
         assertThat(gameService.getLastSettlement()).isNotNull();
     }
 
+    @Test
+    void shouldReplayResultOfRepeatedIdempotencyKey() throws Exception {
+        mvc.perform(post("/api/tables/retry/rounds/start"))
+                .andExpect(status().isOk());
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mvc.perform(post("/api/tables/retry/bets")
+                            .contentType(APPLICATION_JSON)
+                            .content("""
+                                {"nickname":"Joe","number":7,"amount":10.00,"idempotencyKey":"a1"}
+                            """))
+                    .andExpect(status().isAccepted());
+        }
+
+        mvc.perform(post("/api/tables/retry/bets")
+                        .contentType(APPLICATION_JSON)
+                        .content("""
+                            {"nickname":"Joe","number":7,"amount":10.00}
+                        """))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.code").value("DUPLICATE"));
+    }
+
+    @Test
+    void shouldPlaceBetsInBatch() throws Exception {
+        mvc.perform(post("/api/rounds/start"))
+                .andExpect(status().isOk());
+
+        mvc.perform(post("/api/bets/batch")
+                        .contentType(APPLICATION_JSON)
+                        .content("""
+                            {"bets":[
+                              {"nickname":"Batch-1","number":7,"amount":10.00},
+                              {"nickname":"Batch-1","number":3,"amount":5},
+                              {"nickname":"Batch-2","number":11,"amount":5},
+                              {"nickname":"Batch-3","number":2,"amount":0.001}
+                            ]}
+                        """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0]").value("ACCEPTED"))
+                .andExpect(jsonPath("$.results[1]").value("DUPLICATE"))
+                .andExpect(jsonPath("$.results[2]").value("INVALID"))
+                .andExpect(jsonPath("$.results[3]").value("INVALID"));
+
+        mvc.perform(post("/api/bets/batch")
+                        .contentType(APPLICATION_JSON)
+                        .content("""
+                            {"bets":[]}
+                        """))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("VALIDATION"));
+    }
+
+    @Test
+    void shouldCreateTablesOnlyWhenAskedTo() throws Exception {
+        mvc.perform(get("/api/tables/ghost/rounds/current"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code").value("UNKNOWN_TABLE"));
+        mvc.perform(get("/api/tables/ghost/settlements"))
+                .andExpect(status().isNotFound());
+        mvc.perform(get("/api/tables"))
+                .andExpect(jsonPath("$[?(@ == 'ghost')]").isEmpty());
+
+        mvc.perform(put("/api/tables/ghost"))
+                .andExpect(status().isNoContent());
+        mvc.perform(get("/api/tables/ghost/rounds/current"))
+                .andExpect(status().isNoContent());
+        mvc.perform(get("/api/tables"))
+                .andExpect(jsonPath("$[?(@ == 'ghost')]").isNotEmpty());
+    }
+
+    @Test
+    void shouldPageSettlementHistory() throws Exception {
+        mvc.perform(post("/api/tables/history/rounds/start"))
+                .andExpect(status().isOk());
+
+        Awaitility.await().atMost(Duration.ofSeconds(3)).untilAsserted(() ->
+                mvc.perform(get("/api/tables/history/settlements"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$[0].roundId").value(1))
+                        .andExpect(jsonPath("$[0].winningNumber").isNumber())
+                        .andExpect(jsonPath("$[0].winners").isArray())
+        );
+
+        mvc.perform(get("/api/tables/history/settlements").param("fromRound", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+
+        mvc.perform(get("/api/tables/history/settlements").param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("VALIDATION"));
+    }
+
+    @Test
+    void shouldLongPollForRoundTransitions() throws Exception {
+        mvc.perform(put("/api/tables/poll"))
+                .andExpect(status().isNoContent());
+        MvcResult opening = mvc.perform(get("/api/tables/poll/rounds/next").param("afterRound", "0"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult closing = mvc.perform(get("/api/tables/poll/rounds/next")
+                        .param("afterRound", "0").param("state", "CLOSED"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(post("/api/tables/poll/rounds/start"))
+                .andExpect(status().isOk());
+
+        opening.getAsyncResult(3_000);
+        mvc.perform(asyncDispatch(opening))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.roundId").value(1))
+                .andExpect(jsonPath("$.state").value("OPEN"));
+
+        closing.getAsyncResult(3_000);
+        mvc.perform(asyncDispatch(closing))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.roundId").value(1))
+                .andExpect(jsonPath("$.state").value("CLOSED"))
+                .andExpect(jsonPath("$.winningNumber").isNumber());
+
+        // already settled, answered right away
+        MvcResult settled = mvc.perform(get("/api/tables/poll/rounds/next")
+                        .param("afterRound", "0").param("state", "CLOSED"))
+                .andReturn();
+        mvc.perform(asyncDispatch(settled))
+                .andExpect(jsonPath("$.roundId").value(1));
+
+        MvcResult invalid = mvc.perform(get("/api/tables/poll/rounds/next").param("state", "SETTLING"))
+                .andReturn();
+        mvc.perform(asyncDispatch(invalid))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("VALIDATION"));
+    }
+
+    @Test
+    void shouldAnswerUnchangedSnapshotsWithNotModified() throws Exception {
+        mvc.perform(post("/api/tables/etag/rounds/start"))
+                .andExpect(status().isOk());
+
+        String open = mvc.perform(get("/api/tables/etag/rounds/current"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("OPEN"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(open).isNotBlank();
+        mvc.perform(get("/api/tables/etag/rounds/current").header("If-None-Match", open))
+                .andExpect(status().isNotModified());
+
+        Awaitility.await().atMost(Duration.ofSeconds(3)).untilAsserted(() ->
+                mvc.perform(get("/api/tables/etag/rounds/current").header("If-None-Match", open))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.state").value("CLOSED")));
+
+        String settled = Awaitility.await().atMost(Duration.ofSeconds(3)).until(() ->
+                mvc.perform(get("/api/tables/etag/settlement")).andReturn().getResponse().getHeader("ETag"),
+                etag -> etag != null);
+        mvc.perform(get("/api/tables/etag/settlement"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.roundId").value(1));
+        assertThat(settled).isNotBlank().isNotEqualTo(open);
+        mvc.perform(get("/api/tables/etag/settlement").header("If-None-Match", settled))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void shouldExportSettledRoundAsNdjson() throws Exception {
+        mvc.perform(post("/api/tables/export/rounds/start"))
+                .andExpect(status().isOk());
+        for (String nickname : new String[]{"Joe", "Ann"}) {
+            mvc.perform(post("/api/tables/export/bets")
+                            .contentType(APPLICATION_JSON)
+                            .content("{\"nickname\":\"" + nickname + "\",\"number\":4,\"amount\":2.50}"))
+                    .andExpect(status().isAccepted());
+        }
+
+        Awaitility.await().atMost(Duration.ofSeconds(3)).until(() ->
+                gameService.getArchivedRound("export", 1) != null);
+        MvcResult export = mvc.perform(get("/api/tables/export/rounds/1/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mvc.perform(asyncDispatch(export))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = body.lines().toList();
+        assertThat(lines).hasSize(4);
+        assertThat(lines.get(0)).startsWith("{\"type\":\"ROUND\",\"tableId\":\"export\",\"roundId\":1,");
+        assertThat(lines.subList(1, 3)).allSatisfy(line -> assertThat(line).contains("\"number\":4,\"amount\":2.50"));
+        assertThat(lines.get(3)).startsWith("{\"type\":\"TOTALS\",\"bets\":2,\"stake\":5.00,");
+
+        mvc.perform(get("/api/tables/export/rounds/2/export"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code").value("UNKNOWN_ROUND"));
+    }
+
     @Test
     void shouldHandleEmptyStatesAndClosedRound() throws Exception {
         mvc.perform(get("/api/rounds/current"))
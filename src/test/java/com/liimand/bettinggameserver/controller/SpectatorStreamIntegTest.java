@@ -0,0 +1,82 @@
+package com.liimand.bettinggameserver.controller;
+
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+        "game.betting-window-seconds=1",
+        "game.auto-repeat=false"
+})
+class SpectatorStreamIntegTest {
+
+    @Value("${local.server.port}") int port;
+
+    @Autowired TestRestTemplate rest;
+
+    @Autowired SpectatorStream spectators;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void shouldStreamRoundEventsToSpectators() throws Exception {
+        rest.put("/api/tables/watch", null);
+        HttpResponse<Stream<String>> response = client.send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/tables/watch/stream")).build(),
+                HttpResponse.BodyHandlers.ofLines());
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(
+                v -> assertThat(v).startsWith("text/event-stream"));
+
+        BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        Thread reader = new Thread(() -> response.body().forEach(lines::offer));
+        reader.setDaemon(true);
+        reader.start();
+        Awaitility.await().atMost(Duration.ofSeconds(2)).until(() -> spectators.subscriberCount() > 0);
+
+        rest.postForEntity("/api/tables/watch/rounds/start", null, String.class);
+        rest.postForEntity("/api/tables/watch/bets", Map.of("nickname", "Joe", "number", 3, "amount", 5), String.class);
+
+        assertThat(nextData(lines, "ROUND_OPENED")).contains("\"roundId\"");
+        assertThat(nextData(lines, "ROUND_SETTLED")).contains("\"winningNumber\"");
+        assertThat(nextData(lines, "WINNERS")).contains("\"winners\"");
+    }
+
+    @Test
+    void shouldRefuseUnknownTable() throws Exception {
+        HttpResponse<String> response = client.send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/tables/no%20such/stream")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).isEqualTo(404);
+    }
+
+    private static String nextData(BlockingQueue<String> lines, String event) throws InterruptedException {
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        boolean inEvent = false;
+        while (System.nanoTime() < end) {
+            String line = lines.poll(100, TimeUnit.MILLISECONDS);
+            if (line == null) continue;
+            if (line.equals("event: " + event)) inEvent = true;
+            else if (inEvent && line.startsWith("data: ")) return line.substring("data: ".length());
+        }
+        throw new AssertionError("No " + event + " event");
+    }
+}
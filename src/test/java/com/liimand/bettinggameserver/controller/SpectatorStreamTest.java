@@ -0,0 +1,97 @@
+package com.liimand.bettinggameserver.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liimand.bettinggameserver.service.GameListener;
+import com.liimand.bettinggameserver.service.GameService;
+import com.liimand.bettinggameserver.service.GameTable;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SpectatorStreamTest {
+
+    private final GameService gameService = mock(GameService.class);
+    private final SpectatorStream spectators =
+            new SpectatorStream(gameService, new ObjectMapper(), mock(ScheduledExecutorService.class));
+
+    @AfterEach
+    void shutdown() {
+        spectators.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldDropASpectatorThatFallsBehindWithoutHoldingUpTheOthers() {
+        GameTable table = mock(GameTable.class);
+        when(table.getId()).thenReturn("t");
+        when(gameService.table("t")).thenReturn(table);
+        ReflectionTestUtils.setField(spectators, "heartbeatSeconds", 0L);
+        ReflectionTestUtils.setField(spectators, "bufferFrames", 4);
+        spectators.init();
+        ArgumentCaptor<Function<String, GameListener>> factory = ArgumentCaptor.forClass(Function.class);
+        verify(gameService).registerTableListener(factory.capture());
+        GameListener listener = factory.getValue().apply("t");
+
+        CountDownLatch unblock = new CountDownLatch(1);
+        RecordingEmitter stalled = new RecordingEmitter(unblock);
+        RecordingEmitter healthy = new RecordingEmitter(new CountDownLatch(0));
+        spectators.subscribe("t", stalled);
+        spectators.subscribe("t", healthy);
+
+        for (int round = 1; round <= 10; round++) listener.onRoundSettled(round, 7);
+
+        Awaitility.await().atMost(Duration.ofSeconds(2)).until(() -> healthy.frames.size() == 11);
+        assertThat(spectators.subscriberCount()).isEqualTo(1);
+        assertThat(stalled.completed).isFalse();
+
+        unblock.countDown();
+        Awaitility.await().atMost(Duration.ofSeconds(2)).until(() -> stalled.completed);
+        assertThat(stalled.frames).hasSize(1);
+        assertThat(healthy.completed).isFalse();
+    }
+
+    /**
+     * Records frames instead of writing them; {@code send} blocks until {@code unblock} opens, like a write to a
+     * client that stopped reading.
+     */
+    private static final class RecordingEmitter extends ResponseBodyEmitter {
+        final List<byte[]> frames = new CopyOnWriteArrayList<>();
+        final CountDownLatch unblock;
+        volatile boolean completed;
+
+        RecordingEmitter(CountDownLatch unblock) {
+            this.unblock = unblock;
+        }
+
+        @Override
+        public void send(Object object) throws IOException {
+            try {
+                unblock.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            frames.add((byte[]) object);
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.liimand.bettinggameserver.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    private static final BigDecimal PAYOUT_MULTIPLIER = new BigDecimal("9.9");
+
+    @Test
+    void shouldRoundPayoutLikeBigDecimal() {
+        for (long cents = 1; cents <= 100_000; cents++) {
+            BigDecimal expected = Money.toDecimal(cents).multiply(PAYOUT_MULTIPLIER).setScale(2, RoundingMode.HALF_UP);
+            assertThat(Money.toDecimal(Money.multiplyTenths(cents, 99))).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void shouldConvertAtTheEdges() {
+        assertThat(Money.toMinorUnits(new BigDecimal("10"))).isEqualTo(1000);
+        assertThat(Money.toMinorUnits(new BigDecimal("10.5"))).isEqualTo(1050);
+        assertThat(Money.toMinorUnits(new BigDecimal("10.500"))).isEqualTo(1050);
+        assertThat(Money.toDecimal(9900)).isEqualTo(new BigDecimal("99.00"));
+        assertThat(Money.toDecimal(0)).isEqualTo(new BigDecimal("0.00"));
+    }
+
+    @Test
+    void shouldRejectFractionsOfACent() {
+        assertThat(Money.isRepresentable(new BigDecimal("0.01"))).isTrue();
+        assertThat(Money.isRepresentable(new BigDecimal("0.001"))).isFalse();
+        assertThatThrownBy(() -> Money.toMinorUnits(new BigDecimal("0.001")))
+                .isInstanceOf(ArithmeticException.class);
+    }
+}
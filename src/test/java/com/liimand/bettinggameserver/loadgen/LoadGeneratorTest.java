@@ -0,0 +1,60 @@
+package com.liimand.bettinggameserver.loadgen;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+        "game.betting-window-seconds=2",
+        "game.auto-repeat=true"
+})
+class LoadGeneratorTest {
+
+    @Value("${local.server.port}") int port;
+
+    /**
+     * A bet scheduled close to the deadline may still land after it on a loaded machine; that is a
+     * {@code ROUND_CLOSED}, not a lost bet.
+     */
+    @Test
+    void shouldDeliverEveryLastSecondBetAndResult() throws Exception {
+        LoadReport report = runLastSecondLoad();
+
+        assertThat(report.connectFailures()).isZero();
+        assertThat(report.betsSent()).isGreaterThanOrEqualTo(200);
+        assertThat(report.betsAccepted() + report.betsTooLate()).isEqualTo(report.betsSent());
+        assertThat(report.results()).isEqualTo(report.betsAccepted());
+    }
+
+    /**
+     * Wall-clock thresholds only hold on an otherwise idle machine, so they run with {@code ./gradlew perfTest}
+     * rather than with the regular build.
+     */
+    @Test
+    @Tag("perf")
+    void shouldStayWithinLatencyThresholdsForLastSecondBets() throws Exception {
+        LoadReport report = runLastSecondLoad();
+
+        assertThat(report.betsAccepted()).isEqualTo(report.betsSent());
+        assertThat(LoadReport.percentileMs(report.betAck(), 99)).isLessThan(250);
+        assertThat(LoadReport.percentileMs(report.openSkew(), 99)).isLessThan(250);
+        assertThat(LoadReport.percentileMs(report.resultLatency(), 99)).isLessThan(1_000);
+    }
+
+    private LoadReport runLastSecondLoad() throws InterruptedException {
+        LoadConfig config = LoadConfig.defaults(URI.create("ws://localhost:" + port + "/ws/game/load"))
+                .withPlayers(200)
+                .withRounds(2)
+                .withArrival(ArrivalCurve.LAST_SECOND)
+                .withStartRound(true);
+        return new LoadGenerator(config).run(Duration.ofSeconds(30));
+    }
+}
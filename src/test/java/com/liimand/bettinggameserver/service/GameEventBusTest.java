@@ -0,0 +1,129 @@
+package com.liimand.bettinggameserver.service;
+
+import com.liimand.bettinggameserver.domain.WinnerInfo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameEventBusTest {
+
+    private GameEventBus bus;
+
+    @AfterEach
+    void shutdown() {
+        if (bus != null) bus.shutdown();
+    }
+
+    @Test
+    void shouldDeliverEventsOfAPartitionInOrder() {
+        bus = new GameEventBus(2, 16, GameEventBus.OverflowPolicy.BLOCK);
+        RecordingListener listener = new RecordingListener();
+
+        for (long round = 1; round <= 100; round++) {
+            bus.publish(0, List.of(listener), new GameEvent.RoundOpened(round, 0));
+            bus.publish(0, List.of(listener), new GameEvent.RoundSettled(round, 7));
+        }
+
+        Awaitility.await().atMost(Duration.ofSeconds(2))
+                .untilAsserted(() -> assertThat(listener.events).hasSize(200));
+        for (int i = 0; i < 100; i++) {
+            assertThat(listener.events.get(2 * i)).isEqualTo("opened-" + (i + 1));
+            assertThat(listener.events.get(2 * i + 1)).isEqualTo("settled-" + (i + 1));
+        }
+    }
+
+    @Test
+    void shouldDropOnlyDroppableEventsWhenFull() throws Exception {
+        bus = new GameEventBus(1, 1, GameEventBus.OverflowPolicy.DROP_NEWEST);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch busy = new CountDownLatch(1);
+        RecordingListener blocking = new RecordingListener() {
+            @Override
+            public void onRoundSettled(long roundId, int winningNumber) {
+                if (roundId == 1) {
+                    busy.countDown();
+                    try { release.await(); } catch (InterruptedException ignored) {}
+                }
+                super.onRoundSettled(roundId, winningNumber);
+            }
+        };
+
+        bus.publish(0, List.of(blocking), new GameEvent.RoundSettled(1, 7));
+        busy.await();
+        bus.publish(0, List.of(blocking), new GameEvent.RoundOpened(2, 0));
+        bus.publish(0, List.of(blocking), new GameEvent.RoundOpened(3, 0));
+        for (long round = 2; round <= 10; round++) {
+            bus.publish(0, List.of(blocking), new GameEvent.RoundSettled(round, 7));
+        }
+        assertThat(bus.getDroppedCount()).isEqualTo(1);
+        assertThat(bus.getBacklog()).isEqualTo(10);
+        release.countDown();
+
+        Awaitility.await().atMost(Duration.ofSeconds(2))
+                .untilAsserted(() -> assertThat(blocking.events).hasSize(11));
+        assertThat(blocking.events).startsWith("settled-1", "opened-2", "settled-2")
+                .doesNotContain("opened-3")
+                .endsWith("settled-10");
+    }
+
+    @Test
+    void shouldDropOldestDroppableEventAndKeepSettlements() throws Exception {
+        bus = new GameEventBus(1, 1, GameEventBus.OverflowPolicy.DROP_OLDEST);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch busy = new CountDownLatch(1);
+        RecordingListener blocking = new RecordingListener() {
+            @Override
+            public void onRoundSettled(long roundId, int winningNumber) {
+                if (roundId == 1) {
+                    busy.countDown();
+                    try { release.await(); } catch (InterruptedException ignored) {}
+                }
+                super.onRoundSettled(roundId, winningNumber);
+            }
+        };
+
+        bus.publish(0, List.of(blocking), new GameEvent.RoundSettled(1, 7));
+        busy.await();
+        bus.publish(0, List.of(blocking), new GameEvent.RoundOpened(2, 0));
+        bus.publish(0, List.of(blocking), new GameEvent.RoundSettled(2, 7));
+        bus.publish(0, List.of(blocking), new GameEvent.RoundOpened(3, 0));
+        release.countDown();
+
+        Awaitility.await().atMost(Duration.ofSeconds(2))
+                .untilAsserted(() -> assertThat(blocking.events).containsExactly("settled-1", "settled-2", "opened-3"));
+        assertThat(bus.getDroppedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldExposeDroppedCountAndBacklogAsMeters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        bus = new GameEventBus(1, 16, GameEventBus.OverflowPolicy.DROP_NEWEST, new GameMetrics(registry));
+
+        assertThat(registry.get("game.events.dropped").functionCounter().count()).isZero();
+        assertThat(registry.get("game.events.backlog").gauge().value()).isZero();
+    }
+
+    private static class RecordingListener implements GameListener {
+        final List<String> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onRoundOpened(long roundId, long closesAtMs) { events.add("opened-" + roundId); }
+
+        @Override
+        public void onRoundSettled(long roundId, int winningNumber) { events.add("settled-" + roundId); }
+
+        @Override
+        public void onWinnersAnnounced(long roundId, List<WinnerInfo> winners) {}
+
+        @Override
+        public void onPlayerResult(long roundId, String nickname, long payoutCents) {}
+    }
+}
@@ -0,0 +1,42 @@
+package com.liimand.bettinggameserver.service;
+
+import com.liimand.bettinggameserver.domain.PlaceBetResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final GameMetrics metrics = new GameMetrics(registry);
+
+    @Test
+    void shouldCountBetsByResult() {
+        metrics.betPlaced(PlaceBetResult.ACCEPTED, 1_000);
+        metrics.betPlaced(PlaceBetResult.ACCEPTED, 3_000);
+        metrics.betPlaced(PlaceBetResult.DUPLICATE, 500);
+
+        assertThat(registry.get("game.bets").tag("result", "ACCEPTED").timer().count()).isEqualTo(2);
+        assertThat(registry.get("game.bets").tag("result", "DUPLICATE").timer().count()).isEqualTo(1);
+        assertThat(registry.get("game.bets").tag("result", "CLOSED").timer().count()).isZero();
+    }
+
+    @Test
+    void shouldRecordSettlementAndClampEarlyCloses() {
+        metrics.roundSettled(5_000, 42, -3_000);
+
+        assertThat(registry.get("game.round.settle").timer().count()).isEqualTo(1);
+        assertThat(registry.get("game.round.bets").summary().totalAmount()).isEqualTo(42);
+        assertThat(registry.get("game.round.close.lag").timer().totalTime(TimeUnit.NANOSECONDS)).isZero();
+    }
+
+    @Test
+    void shouldTimeDispatchPerEventType() {
+        metrics.eventDispatched(new GameEvent.RoundSettled(1, 7), 2_000);
+
+        assertThat(registry.get("game.events.dispatch").tag("event", "RoundSettled").timer().count()).isEqualTo(1);
+    }
+}
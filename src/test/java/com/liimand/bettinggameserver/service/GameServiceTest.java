@@ -10,13 +10,16 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.Duration;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest
@@ -65,8 +68,10 @@ class GameServiceTest {
         assertThat(closed.state()).isEqualTo(RoundState.CLOSED);
         assertThat(closed.winningNumber()).isBetween(1, 10);
         assertThat(closed.roundId()).isEqualTo(open.roundId());
-        assertThat(listener.openedRounds).contains(open.roundId());
-        assertThat(listener.settledRounds).contains(open.roundId());
+        Awaitility.await().atMost(Duration.ofSeconds(1)).untilAsserted(() -> {
+            assertThat(listener.openedRounds).contains(open.roundId());
+            assertThat(listener.settledRounds).contains(open.roundId());
+        });
     }
 
     @Test
@@ -128,25 +133,92 @@ class GameServiceTest {
         assertThat(s.getWinners().get(0).getNickname()).isEqualTo("John");
         assertThat(s.getWinners().get(0).getWinnings()).isEqualByComparingTo("99.00");
 
-        assertThat(listener.playerResults).anySatisfy(pr -> {
-            if (pr.nickname.equals("John")) {
-                assertThat(pr.payout).isEqualByComparingTo("99.00");
-            }
-        });
-        assertThat(listener.playerResults).anySatisfy(pr -> {
-            if (pr.nickname.equals("Smith")) {
-                assertThat(pr.payout).isEqualByComparingTo("0.00");
-            }
+        // listeners are notified asynchronously by the event bus
+        Awaitility.await().atMost(Duration.ofSeconds(1)).untilAsserted(() -> {
+            assertThat(listener.playerResults).anySatisfy(pr -> {
+                if (pr.nickname.equals("John")) {
+                    assertThat(pr.payoutCents).isEqualTo(9900);
+                }
+            });
+            assertThat(listener.playerResults).anySatisfy(pr -> {
+                if (pr.nickname.equals("Smith")) {
+                    assertThat(pr.payoutCents).isZero();
+                }
+            });
+
+            assertThat(listener.winnersBroadcasted).isTrue();
         });
+    }
+
+    @Test
+    void shouldPlaceBetsInBatch() {
+        assertThat(gameService.placeBets(List.of(new Bet("John", 7, new BigDecimal("10")))))
+                .containsExactly(PlaceBetResult.CLOSED);
+
+        gameService.startNewRound();
+
+        List<PlaceBetResult> results = gameService.placeBets(Arrays.asList(
+                new Bet("John", 7, new BigDecimal("10")),
+                new Bet("  John ", 3, new BigDecimal("5")),
+                new Bet("Smith", 11, new BigDecimal("5")),
+                null,
+                new Bet("Smith", 2, new BigDecimal("1"))));
+
+        assertThat(results).containsExactly(
+                PlaceBetResult.ACCEPTED,
+                PlaceBetResult.DUPLICATE,
+                PlaceBetResult.INVALID,
+                PlaceBetResult.INVALID,
+                PlaceBetResult.ACCEPTED);
+    }
+
+    @Test
+    void shouldKeepTablesIndependent() {
+        gameService.startNewRound("vip");
+
+        assertThat(gameService.placeBet("vip", new Bet("John", 7, new BigDecimal("10")))).isEqualTo(PlaceBetResult.ACCEPTED);
+        assertThat(gameService.placeBet(new Bet("John", 7, new BigDecimal("10")))).isEqualTo(PlaceBetResult.CLOSED);
+        assertThat(gameService.getCurrentRoundSnapshot()).isNull();
+        assertThat(gameService.getCurrentRoundSnapshot("vip").state()).isEqualTo(RoundState.OPEN);
+        assertThat(listener.openedRounds).isEmpty();
+    }
+
+    @Test
+    void shouldRejectInvalidTableIds() {
+        assertThatThrownBy(() -> gameService.table("bad id")).isInstanceOf(UnknownTableException.class);
+        assertThatThrownBy(() -> gameService.table(null)).isInstanceOf(UnknownTableException.class);
+        assertThatThrownBy(() -> gameService.createTable("bad id")).isInstanceOf(UnknownTableException.class);
+    }
+
+    @Test
+    void shouldOnlyCreateTablesWhenAskedTo() {
+        assertThatThrownBy(() -> gameService.getCurrentRoundSnapshot("lazy")).isInstanceOf(UnknownTableException.class);
+        assertThatThrownBy(() -> gameService.placeBet("lazy", new Bet("John", 7, new BigDecimal("10"))))
+                .isInstanceOf(UnknownTableException.class);
+        assertThat(gameService.tables()).extracting(GameTable::getId).containsExactly(GameService.DEFAULT_TABLE);
+
+        gameService.createTable("lazy");
+        assertThat(gameService.getCurrentRoundSnapshot("lazy")).isNull();
+        assertThat(gameService.startNewRound("other").state()).isEqualTo(RoundState.OPEN);
+        assertThat(gameService.tables()).extracting(GameTable::getId)
+                .containsExactlyInAnyOrder(GameService.DEFAULT_TABLE, "lazy", "other");
+    }
+
+    @Test
+    void shouldRefuseTablesOverTheLimit() {
+        ReflectionTestUtils.setField(gameService, "maxTables", 2);
+        gameService.createTable("vip");
 
-        assertThat(listener.winnersBroadcasted).isTrue();
+        assertThatThrownBy(() -> gameService.createTable("extra")).isInstanceOf(TableLimitException.class);
+        assertThatThrownBy(() -> gameService.startNewRound("extra")).isInstanceOf(TableLimitException.class);
+        assertThat(gameService.createTable("vip").getId()).isEqualTo("vip");
     }
 
     private static class CapturingListener implements GameListener {
-        final List<Long> openedRounds = new ArrayList<>();
-        final List<Long> settledRounds = new ArrayList<>();
-        final List<PlayerResult> playerResults = new ArrayList<>();
-        boolean winnersBroadcasted = false;
+        final List<Long> openedRounds = new CopyOnWriteArrayList<>();
+        final List<Long> settledRounds = new CopyOnWriteArrayList<>();
+        final List<PlayerResult> playerResults = new CopyOnWriteArrayList<>();
+        volatile boolean winnersBroadcasted = false;
 
         @Override
         public void onRoundOpened(long roundId, long closesAtMs) { openedRounds.add(roundId); }
@@ -160,10 +232,10 @@ class GameServiceTest {
         }
 
         @Override
-        public void onPlayerResult(long roundId, String nickname, BigDecimal payout) {
-            playerResults.add(new PlayerResult(roundId, nickname, payout));
+        public void onPlayerResult(long roundId, String nickname, long payoutCents) {
+            playerResults.add(new PlayerResult(roundId, nickname, payoutCents));
         }
 
-        record PlayerResult(long roundId, String nickname, BigDecimal payout) {}
+        record PlayerResult(long roundId, String nickname, long payoutCents) {}
     }
 }
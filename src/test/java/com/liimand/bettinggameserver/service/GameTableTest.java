@@ -0,0 +1,128 @@
+package com.liimand.bettinggameserver.service;
+
+import com.liimand.bettinggameserver.domain.*;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameTableTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final GameEventBus eventBus = new GameEventBus(1, 64, GameEventBus.OverflowPolicy.DROP_OLDEST);
+    private final GameTable table = new GameTable("t", new GameTable.Settings(Duration.ofHours(1), false, 0, 16, 1024),
+            new ExecutorRoundTimer(scheduler), () -> 7, eventBus, BetJournal.NOOP, GameMetrics.noop(),
+            new PlayerRegistry(1 << 16));
+
+    @AfterEach
+    void tearDown() {
+        eventBus.shutdown();
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void shouldSettleEveryBetAcceptedWhileRacingTheClose() throws Exception {
+        long roundId = table.startNewRound().roundId();
+        int writers = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        CountDownLatch started = new CountDownLatch(writers);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger closed = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            futures.add(pool.submit(() -> {
+                started.countDown();
+                for (int i = 0; ; i++) {
+                    PlaceBetResult r = table.placeBet(new Bet("p" + writer + "-" + i, 7, 100));
+                    if (r == PlaceBetResult.ACCEPTED) accepted.incrementAndGet();
+                    else if (r == PlaceBetResult.CLOSED) {
+                        closed.incrementAndGet();
+                        return;
+                    }
+                }
+            }));
+        }
+        started.await();
+        Thread.sleep(20);
+
+        table.closeAndSettle(roundId);
+        for (Future<?> f : futures) f.get(5, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertThat(table.getCurrentRoundSnapshot().state()).isEqualTo(RoundState.CLOSED);
+        assertThat(closed.get()).isEqualTo(writers);
+        assertThat(accepted.get()).isPositive();
+        assertThat(table.getLastSettlement().getWinners()).hasSize(accepted.get());
+    }
+
+    @Test
+    void shouldPublishPoolStatsOnlyWhenBetsChanged() {
+        List<long[]> stats = new CopyOnWriteArrayList<>();
+        table.registerListener(new GameListener() {
+            @Override public void onRoundOpened(long roundId, long closesAtMs) {}
+            @Override public void onRoundSettled(long roundId, int winningNumber) {}
+            @Override public void onWinnersAnnounced(long roundId, List<WinnerInfo> winners) {}
+            @Override public void onPlayerResult(long roundId, String nickname, long payoutCents) {}
+
+            @Override
+            public void onPoolStats(long roundId, int[] counts, long[] stakeCents) {
+                stats.add(new long[]{counts[6], stakeCents[6], counts[0]});
+            }
+        });
+        table.startNewRound();
+        table.publishPoolStats();
+
+        table.placeBet(new Bet("Joe", 7, 1_000));
+        table.placeBet(new Bet("Ann", 7, 250));
+        table.publishPoolStats();
+        table.publishPoolStats();
+
+        Awaitility.await().atMost(Duration.ofSeconds(2)).until(() -> !stats.isEmpty());
+        assertThat(stats).hasSize(1);
+        assertThat(stats.get(0)).containsExactly(2, 1_250, 0);
+    }
+
+    @Test
+    void shouldAnswerRepeatedIdempotencyKeyWithFirstResult() throws Exception {
+        long roundId = table.startNewRound().roundId();
+        int retries = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(retries);
+        List<Future<PlaceBetResult>> futures = new ArrayList<>();
+        for (int i = 0; i < retries; i++) {
+            futures.add(pool.submit(() -> table.placeBet(new Bet("Joe", 7, 100), "k-1")));
+        }
+        for (Future<PlaceBetResult> f : futures) assertThat(f.get(5, TimeUnit.SECONDS)).isEqualTo(PlaceBetResult.ACCEPTED);
+        pool.shutdown();
+
+        assertThat(table.placeBet(new Bet("Joe", 3, 500))).isEqualTo(PlaceBetResult.DUPLICATE);
+        assertThat(table.placeBet(new Bet("Joe", 3, 500), "k-2")).isEqualTo(PlaceBetResult.DUPLICATE);
+        assertThat(table.placeBet(new Bet("Ann", 7, 100), "k-1")).isEqualTo(PlaceBetResult.ACCEPTED);
+
+        table.closeAndSettle(roundId);
+        assertThat(table.getLastSettlement().getWinners()).hasSize(2);
+        assertThat(table.placeBet(new Bet("Joe", 7, 100), "k-1")).isEqualTo(PlaceBetResult.CLOSED);
+    }
+
+    @Test
+    void shouldIgnoreStaleAndRepeatedCloses() {
+        long first = table.startNewRound().roundId();
+        long second = table.startNewRound().roundId();
+
+        assertThat(table.placeBet(new Bet("Joe", 7, 100))).isEqualTo(PlaceBetResult.ACCEPTED);
+        table.closeAndSettle(first);
+        assertThat(table.getCurrentRoundSnapshot().state()).isEqualTo(RoundState.OPEN);
+
+        table.closeAndSettle(second);
+        table.closeAndSettle(second);
+        assertThat(table.getLastSettlement().getWinners()).hasSize(1);
+        assertThat(table.getHistory().page(null, 10)).extracting(SettlementHistory.Entry::roundId).containsExactly(second);
+    }
+}
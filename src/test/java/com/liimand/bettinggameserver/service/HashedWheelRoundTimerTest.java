@@ -0,0 +1,48 @@
+package com.liimand.bettinggameserver.service;
+
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashedWheelRoundTimerTest {
+
+    private final HashedWheelRoundTimer timer = new HashedWheelRoundTimer(5, 8, 2);
+
+    @AfterEach
+    void shutdown() {
+        timer.shutdown();
+    }
+
+    @Test
+    void shouldFireTasksBeyondOneWheelRotation() {
+        AtomicInteger fired = new AtomicInteger();
+        long start = System.nanoTime();
+
+        timer.schedule(fired::incrementAndGet, 0, TimeUnit.MILLISECONDS);
+        timer.schedule(fired::incrementAndGet, 120, TimeUnit.MILLISECONDS);
+
+        Awaitility.await().atMost(Duration.ofSeconds(2)).until(() -> fired.get() == 2);
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(120));
+        assertThat(timer.drift().fired()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotRunCancelledTasks() throws Exception {
+        AtomicInteger fired = new AtomicInteger();
+
+        RoundTimer.Timeout cancelled = timer.schedule(fired::incrementAndGet, 20, TimeUnit.MILLISECONDS);
+        timer.schedule(() -> fired.addAndGet(10), 40, TimeUnit.MILLISECONDS);
+
+        assertThat(cancelled.cancel()).isTrue();
+        assertThat(cancelled.cancel()).isFalse();
+        Awaitility.await().atMost(Duration.ofSeconds(2)).until(() -> fired.get() >= 10);
+        Thread.sleep(50);
+        assertThat(fired.get()).isEqualTo(10);
+    }
+}
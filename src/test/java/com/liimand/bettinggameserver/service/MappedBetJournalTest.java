@@ -0,0 +1,80 @@
+package com.liimand.bettinggameserver.service;
+
+import com.liimand.bettinggameserver.domain.Bet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappedBetJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldRecoverOnlyUnsettledRounds() throws Exception {
+        MappedBetJournal journal = new MappedBetJournal(dir, 4096, 1, 16);
+        journal.roundOpened("default", 1, 1_000);
+        journal.betAccepted("default", 1, new Bet("Joe", 3, 500));
+        journal.roundSettled("default", 1, 3);
+        journal.roundOpened("default", 2, 2_000);
+        journal.betAccepted("default", 2, new Bet("Ann", 7, 1_050));
+        journal.roundOpened("vip", 5, 3_000);
+        journal.roundSettled("vip", 5, 1);
+        journal.close();
+
+        BetJournal.Recovery recovery;
+        try (MappedBetJournal reopened = new MappedBetJournal(dir, 4096, 1, 16)) {
+            recovery = reopened.recover();
+        }
+
+        assertThat(recovery.lastRoundIds()).containsEntry("default", 2L).containsEntry("vip", 5L);
+        assertThat(recovery.openRounds()).singleElement().satisfies(round -> {
+            assertThat(round.tableId()).isEqualTo("default");
+            assertThat(round.roundId()).isEqualTo(2);
+            assertThat(round.closesAtMs()).isEqualTo(2_000);
+            assertThat(round.bets()).containsExactly(new Bet("Ann", 7, 1_050));
+        });
+    }
+
+    @Test
+    void shouldRotateSegmentsAndDropSettledOnes() throws Exception {
+        MappedBetJournal journal = new MappedBetJournal(dir, 256, 1, 16);
+        journal.roundOpened("default", 1, 1_000);
+        for (int i = 0; i < 50; i++) journal.betAccepted("default", 1, new Bet("player" + i, 1 + i % 10, 100));
+        journal.roundSettled("default", 1, 3);
+        for (long round = 2; round <= 20; round++) {
+            journal.roundOpened("default", round, 0);
+            journal.roundSettled("default", round, 3);
+        }
+        journal.close();
+
+        try (var files = Files.list(dir)) {
+            assertThat(files.count()).isLessThan(5);
+        }
+        try (MappedBetJournal reopened = new MappedBetJournal(dir, 256, 1, 16)) {
+            assertThat(reopened.recover().openRounds()).isEmpty();
+        }
+    }
+
+    @Test
+    void shouldKeepRoundIdsOfIdleTablesAcrossRotation() throws Exception {
+        MappedBetJournal journal = new MappedBetJournal(dir, 256, 1, 16);
+        journal.roundOpened("idle", 7, 1_000);
+        journal.roundSettled("idle", 7, 3);
+        for (long round = 1; round <= 20; round++) {
+            journal.roundOpened("default", round, 0);
+            journal.roundSettled("default", round, 3);
+        }
+        journal.close();
+
+        assertThat(dir.resolve(String.format("journal-%020d.log", 0))).doesNotExist();
+        try (MappedBetJournal reopened = new MappedBetJournal(dir, 256, 1, 16)) {
+            assertThat(reopened.recover().lastRoundIds()).containsEntry("idle", 7L).containsEntry("default", 20L);
+            assertThat(reopened.recover().openRounds()).isEmpty();
+        }
+    }
+}
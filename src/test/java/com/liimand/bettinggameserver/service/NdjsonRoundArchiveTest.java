@@ -0,0 +1,69 @@
+package com.liimand.bettinggameserver.service;
+
+import com.liimand.bettinggameserver.domain.RoundInfo;
+import com.liimand.bettinggameserver.domain.RoundState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NdjsonRoundArchiveTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldWriteOneLinePerBetBetweenRoundAndTotals() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        try (NdjsonRoundArchive archive = new NdjsonRoundArchive(dir)) {
+            archive.archive("vip", round(4), 7, visitor -> {
+                visitor.bet("Joe \"J\"", 7, 1_000, 990);
+                for (int i = 0; i < 5_000; i++) visitor.bet("player" + i, 1 + i % 6, 250, 0);
+            }, done::countDown);
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+
+            Path file = archive.find("vip", 4);
+            assertThat(file).isEqualTo(dir.resolve("vip").resolve("4.ndjson"));
+            List<String> lines = Files.readAllLines(file);
+            assertThat(lines).hasSize(5_003);
+            assertThat(lines.get(0)).isEqualTo("{\"type\":\"ROUND\",\"tableId\":\"vip\",\"roundId\":4,"
+                    + "\"openedAtMs\":1000,\"closesAtMs\":11000,\"winningNumber\":7}");
+            assertThat(lines.get(1)).isEqualTo("{\"type\":\"BET\",\"nickname\":\"Joe \\\"J\\\"\",\"number\":7,"
+                    + "\"amount\":10.00,\"payout\":9.90}");
+            assertThat(lines.get(2)).isEqualTo("{\"type\":\"BET\",\"nickname\":\"player0\",\"number\":1,"
+                    + "\"amount\":2.50,\"payout\":0.00}");
+            assertThat(lines.get(5_002)).isEqualTo("{\"type\":\"TOTALS\",\"bets\":5001,\"stake\":12510.00,\"payout\":9.90}");
+            assertThat(archive.find("vip", 5)).isNull();
+        }
+    }
+
+    @Test
+    void shouldKeepExistingRoundFilesAndResumeAfterThem() throws Exception {
+        try (NdjsonRoundArchive archive = new NdjsonRoundArchive(dir)) {
+            archive.archive("vip", round(3), 1, visitor -> visitor.bet("Joe", 1, 100, 990), () -> {});
+            archive.archive("vip", round(12), 2, visitor -> {}, () -> {});
+        }
+        List<String> first = Files.readAllLines(dir.resolve("vip").resolve("3.ndjson"));
+
+        CountDownLatch done = new CountDownLatch(1);
+        try (NdjsonRoundArchive restarted = new NdjsonRoundArchive(dir)) {
+            assertThat(restarted.lastRoundId("vip")).isEqualTo(12);
+            assertThat(restarted.lastRoundId("other")).isZero();
+
+            restarted.archive("vip", round(3), 5, visitor -> visitor.bet("Ann", 5, 200, 1_980), done::countDown);
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(Files.readAllLines(restarted.find("vip", 3))).isEqualTo(first);
+        }
+    }
+
+    private static RoundInfo round(long roundId) {
+        return new RoundInfo(roundId, RoundState.OPEN, Instant.ofEpochMilli(1_000), Instant.ofEpochMilli(11_000), null);
+    }
+}
@@ -0,0 +1,47 @@
+package com.liimand.bettinggameserver.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlayerRegistryTest {
+
+    @Test
+    void shouldGiveEachNicknameOneStableId() {
+        PlayerRegistry players = new PlayerRegistry(4);
+
+        int joe = players.acquire("Joe");
+        int ann = players.acquire("Ann");
+
+        assertThat(players.acquire("Joe")).isEqualTo(joe);
+        assertThat(ann).isNotEqualTo(joe);
+        assertThat(players.find("Joe")).isEqualTo(joe);
+        assertThat(players.nickname(ann)).isEqualTo("Ann");
+        assertThat(players.find("Nobody")).isEqualTo(-1);
+    }
+
+    @Test
+    void shouldReclaimOnlyUnpinnedIdsWhenFull() {
+        PlayerRegistry players = new PlayerRegistry(2);
+        List<Integer> reclaimed = new ArrayList<>();
+        players.onReclaim(reclaimed::add);
+        int joe = players.acquire("Joe");
+        int ann = players.acquire("Ann");
+
+        assertThat(players.acquire("Bob")).isEqualTo(-1);
+        assertThat(reclaimed).isEmpty();
+
+        players.release(ann);
+        int bob = players.acquire("Bob");
+
+        assertThat(bob).isEqualTo(ann);
+        assertThat(reclaimed).containsExactly(ann);
+        assertThat(players.find("Ann")).isEqualTo(-1);
+        assertThat(players.find("Joe")).isEqualTo(joe);
+        assertThat(players.nickname(bob)).isEqualTo("Bob");
+        assertThat(players.size()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,51 @@
+package com.liimand.bettinggameserver.service;
+
+import com.liimand.bettinggameserver.domain.Settlement;
+import com.liimand.bettinggameserver.domain.WinnerInfo;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SettlementHistoryTest {
+
+    private final SettlementHistory history = new SettlementHistory(4);
+
+    @Test
+    void shouldKeepOnlyTheLastCapacityRounds() {
+        for (long round = 1; round <= 10; round++) {
+            history.add(new Settlement(round, 7, List.of(new WinnerInfo("Joe", 990))));
+        }
+
+        assertThat(history.page(null, 100)).extracting(SettlementHistory.Entry::roundId).containsExactly(7L, 8L, 9L, 10L);
+        assertThat(history.page(1L, 2)).extracting(SettlementHistory.Entry::roundId).containsExactly(7L, 8L);
+        assertThat(history.page(null, 1)).extracting(SettlementHistory.Entry::roundId).containsExactly(10L);
+        assertThat(history.page(11L, 5)).isEmpty();
+        assertThat(history.page(10L, 1).get(0).toSettlement())
+                .isEqualTo(new Settlement(10, 7, List.of(new WinnerInfo("Joe", 990))));
+    }
+
+    @Test
+    void shouldSkipRoundsThatNeverSettled() {
+        history.add(new Settlement(1, 3, List.of()));
+        history.add(new Settlement(3, 3, List.of()));
+
+        assertThat(history.page(1L, 10)).extracting(SettlementHistory.Entry::roundId).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void shouldEncodeEachEntryOnce() {
+        history.add(new Settlement(1, 3, List.of()));
+        SettlementHistory.Entry entry = history.page(null, 1).get(0);
+        AtomicInteger encodes = new AtomicInteger();
+
+        byte[] first = entry.encoded(e -> { encodes.incrementAndGet(); return "{}".getBytes(StandardCharsets.UTF_8); });
+        byte[] second = entry.encoded(e -> { encodes.incrementAndGet(); return "{}".getBytes(StandardCharsets.UTF_8); });
+
+        assertThat(second).isSameAs(first);
+        assertThat(encodes).hasValue(1);
+    }
+}
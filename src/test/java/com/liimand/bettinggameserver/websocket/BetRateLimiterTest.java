@@ -0,0 +1,88 @@
+package com.liimand.bettinggameserver.websocket;
+
+import com.liimand.bettinggameserver.service.PlayerRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.InetSocketAddress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BetRateLimiterTest {
+
+    private static final BetRateLimiter.Limit SLOW = new BetRateLimiter.Limit(0.001, 2);
+
+    @Test
+    void shouldAllowBurstThenRefuse() {
+        BetRateLimiter limiter = new BetRateLimiter(SLOW, BetRateLimiter.Limit.NONE, BetRateLimiter.Limit.NONE, 0);
+        WebSocketSession s = session("10.0.0.1");
+        limiter.opened(s);
+
+        assertThat(limiter.allowFrame(s)).isTrue();
+        assertThat(limiter.allowFrame(s)).isTrue();
+        assertThat(limiter.allowFrame(s)).isFalse();
+
+        limiter.closed(s);
+        assertThat(limiter.trackedSessions()).isZero();
+        assertThat(limiter.allowFrame(s)).isTrue();
+    }
+
+    @Test
+    void shouldShareAddressBucketUntilLastSessionCloses() {
+        BetRateLimiter limiter = new BetRateLimiter(BetRateLimiter.Limit.NONE, SLOW, BetRateLimiter.Limit.NONE, 0);
+        WebSocketSession a = session("10.0.0.1"), b = session("10.0.0.1"), other = session("10.0.0.2");
+        limiter.opened(a);
+        limiter.opened(b);
+        limiter.opened(other);
+
+        assertThat(limiter.allowFrame(a)).isTrue();
+        assertThat(limiter.allowFrame(b)).isTrue();
+        assertThat(limiter.allowFrame(a)).isFalse();
+        assertThat(limiter.allowFrame(other)).isTrue();
+
+        limiter.closed(a);
+        assertThat(limiter.trackedAddresses()).isEqualTo(2);
+        limiter.closed(b);
+        limiter.closed(other);
+        assertThat(limiter.trackedAddresses()).isZero();
+    }
+
+    @Test
+    void shouldLimitPlayersById() {
+        BetRateLimiter limiter = new BetRateLimiter(BetRateLimiter.Limit.NONE, BetRateLimiter.Limit.NONE, SLOW, 10_000);
+
+        assertThat(limiter.allowPlayer(5_000)).isTrue();
+        assertThat(limiter.allowPlayer(5_000)).isTrue();
+        assertThat(limiter.allowPlayer(5_000)).isFalse();
+        assertThat(limiter.allowPlayer(7)).isTrue();
+        assertThat(limiter.allowPlayer(-1)).isTrue();
+    }
+
+    @Test
+    void shouldKeepPlayerBucketsAcrossReconnectsUntilTheIdIsReassigned() {
+        PlayerRegistry players = new PlayerRegistry(1);
+        BetRateLimiter limiter = new BetRateLimiter(0, 0, 0, 0, 0.001, 2, players);
+        WebSocketSession s = session("10.0.0.1");
+        limiter.opened(s);
+        int joe = players.acquire("Joe");
+
+        assertThat(limiter.allowPlayer(joe)).isTrue();
+        assertThat(limiter.allowPlayer(joe)).isTrue();
+        limiter.closed(s);
+        limiter.opened(session("10.0.0.1"));
+        assertThat(limiter.allowPlayer(joe)).isFalse();
+
+        players.release(joe);
+        int ann = players.acquire("Ann");
+        assertThat(ann).isEqualTo(joe);
+        assertThat(limiter.allowPlayer(ann)).isTrue();
+    }
+
+    private static WebSocketSession session(String ip) {
+        WebSocketSession s = mock(WebSocketSession.class);
+        when(s.getRemoteAddress()).thenReturn(new InetSocketAddress(ip, 40_000));
+        return s;
+    }
+}
@@ -0,0 +1,108 @@
+package com.liimand.bettinggameserver.websocket;
+
+import com.liimand.bettinggameserver.domain.PlaceBetResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BinaryCodecTest {
+
+    @Test
+    void shouldDecodeBet() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(BinaryCodec.BET);
+        bet(out, 5, 1050, "Joe");
+
+        GameWebSocketHandler.InMessage in = BinaryCodec.decode(ByteBuffer.wrap(out.toByteArray()));
+
+        assertThat(in.type).isEqualTo("BET");
+        assertThat(in.number).isEqualTo(5);
+        assertThat(in.amount).isEqualByComparingTo(new BigDecimal("10.50"));
+        assertThat(in.nickname).isEqualTo("Joe");
+    }
+
+    @Test
+    void shouldDecodeBetWithIdempotencyKey() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(BinaryCodec.BET);
+        bet(out, 5, 1050, "Joe");
+        varint(out, 2);
+        out.writeBytes(new byte[]{'k', '1'});
+
+        GameWebSocketHandler.InMessage in = BinaryCodec.decode(ByteBuffer.wrap(out.toByteArray()));
+
+        assertThat(in.nickname).isEqualTo("Joe");
+        assertThat(in.idempotencyKey).isEqualTo("k1");
+    }
+
+    @Test
+    void shouldDecodeBatch() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(BinaryCodec.BET_BATCH);
+        out.write(2);
+        bet(out, 1, 100, "Ann");
+        bet(out, 10, 20_000, "Bõb");
+
+        GameWebSocketHandler.InMessage in = BinaryCodec.decode(ByteBuffer.wrap(out.toByteArray()));
+
+        assertThat(in.type).isEqualTo("BET_BATCH");
+        assertThat(in.bets).extracting(b -> b.nickname).containsExactly("Ann", "Bõb");
+        assertThat(in.bets.get(1).amount).isEqualByComparingTo(new BigDecimal("200"));
+    }
+
+    @Test
+    void shouldRejectTruncatedAndUnknownFrames() {
+        assertThatThrownBy(() -> BinaryCodec.decode(ByteBuffer.wrap(new byte[]{BinaryCodec.BET, 5})))
+                .isInstanceOf(RuntimeException.class);
+        assertThatThrownBy(() -> BinaryCodec.decode(ByteBuffer.wrap(new byte[]{0x7F})))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldEncodeOutgoingFramesWithVarints() {
+        BinaryMessage opened = BinaryCodec.encode(new GameWebSocketHandler.OutRoundOpened(300, 1_700_000_000_000L));
+        ByteBuffer buf = opened.getPayload();
+
+        assertThat(buf.get()).isEqualTo(BinaryCodec.ROUND_OPENED);
+        assertThat(BinaryCodec.readVarint(buf)).isEqualTo(300);
+        assertThat(BinaryCodec.readVarint(buf)).isEqualTo(1_700_000_000_000L);
+        assertThat(buf.hasRemaining()).isFalse();
+        assertThat(opened.getPayload().remaining()).isEqualTo(opened.getPayloadLength());
+
+        ByteBuffer batch = BinaryCodec.encode(new GameWebSocketHandler.OutBatchResult(
+                List.of(PlaceBetResult.ACCEPTED, PlaceBetResult.DUPLICATE))).getPayload();
+        assertThat(batch.get()).isEqualTo(BinaryCodec.BET_BATCH_RESULT);
+        assertThat(BinaryCodec.readVarint(batch)).isEqualTo(2);
+        assertThat(BinaryCodec.readVarint(batch)).isEqualTo(PlaceBetResult.ACCEPTED.ordinal());
+        assertThat(BinaryCodec.readVarint(batch)).isEqualTo(PlaceBetResult.DUPLICATE.ordinal());
+
+        ByteBuffer error = BinaryCodec.encode(new GameWebSocketHandler.OutError("DUPLICATE", null)).getPayload();
+        assertThat(error.get()).isEqualTo(BinaryCodec.ERROR);
+        assertThat(BinaryCodec.readString(error)).isEqualTo("DUPLICATE");
+        assertThat(BinaryCodec.readString(error)).isEmpty();
+    }
+
+    private static void bet(ByteArrayOutputStream out, int number, long cents, String nickname) {
+        varint(out, number);
+        varint(out, cents);
+        byte[] nick = nickname.getBytes(StandardCharsets.UTF_8);
+        varint(out, nick.length);
+        out.writeBytes(nick);
+    }
+
+    private static void varint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
@@ -0,0 +1,84 @@
+package com.liimand.bettinggameserver.websocket;
+
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class BroadcastFanoutTest {
+
+    private final BroadcastFanout fanout = new BroadcastFanout(3);
+    private final BroadcastFanout.Group group = fanout.newGroup();
+
+    @AfterEach
+    void shutdown() {
+        fanout.shutdown();
+    }
+
+    @Test
+    void shouldSendSameFrameToEverySessionInOrder() throws Exception {
+        List<WebSocketSession> sessions = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            WebSocketSession s = mock(WebSocketSession.class);
+            when(s.isOpen()).thenReturn(true);
+            sessions.add(s);
+            group.register(s);
+        }
+        TextMessage first = new TextMessage("{\"type\":\"ROUND_SETTLED\"}");
+        TextMessage second = new TextMessage("{\"type\":\"WINNERS\"}");
+
+        group.broadcast(first);
+        group.broadcast(second);
+
+        Awaitility.await().atMost(Duration.ofSeconds(2))
+                .until(() -> fanout.stats().shardRuns() == 6);
+        for (WebSocketSession s : sessions) {
+            var inOrder = inOrder(s);
+            inOrder.verify(s).sendMessage(same(first));
+            inOrder.verify(s).sendMessage(same(second));
+        }
+        assertThat(fanout.stats().broadcasts()).isEqualTo(2);
+        assertThat(fanout.stats().lastBroadcastNanos()).isPositive();
+    }
+
+    @Test
+    void shouldOnlySendToSessionsOfTheGroup() throws Exception {
+        WebSocketSession member = mock(WebSocketSession.class);
+        WebSocketSession other = mock(WebSocketSession.class);
+        when(member.isOpen()).thenReturn(true);
+        group.register(member);
+        fanout.newGroup().register(other);
+
+        TextMessage frame = new TextMessage("{}");
+        group.broadcast(frame);
+
+        Awaitility.await().atMost(Duration.ofSeconds(2))
+                .until(() -> fanout.stats().shardRuns() == 3);
+        verify(member).sendMessage(same(frame));
+        verify(other, never()).sendMessage(any());
+    }
+
+    @Test
+    void shouldSkipUnregisteredSessions() throws Exception {
+        WebSocketSession s = mock(WebSocketSession.class);
+        int slot = group.register(s);
+        group.unregister(slot, mock(WebSocketSession.class));
+        assertThat(group.sessionCount()).isEqualTo(1);
+        group.unregister(slot, s);
+
+        group.broadcast(new TextMessage("{}"));
+
+        Awaitility.await().atMost(Duration.ofSeconds(2))
+                .until(() -> fanout.stats().shardRuns() == 3);
+        assertThat(group.sessionCount()).isZero();
+        verify(s, never()).sendMessage(any());
+    }
+}
@@ -5,19 +5,24 @@ import com.liimand.bettinggameserver.domain.RoundInfo;
 import com.liimand.bettinggameserver.domain.RoundState;
 import com.liimand.bettinggameserver.domain.WinnerInfo;
 import com.liimand.bettinggameserver.service.GameService;
+import com.liimand.bettinggameserver.service.PlayerRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
@@ -37,13 +42,15 @@ class GameWebSocketHandlerTest {
 
     @BeforeEach
     void setup() {
-        handler = new GameWebSocketHandler(gameService);
+        handler = new GameWebSocketHandler(gameService, new BroadcastFanout(0), new PlayerRegistry(1024),
+                BetRateLimiter.unlimited());
+        lenient().when(session.getAttributes()).thenReturn(new HashMap<>());
     }
 
     @Test
     void shouldSendRoundOpenedAndSettled() throws Exception {
         RoundInfo round = new RoundInfo(1, RoundState.CLOSED, Instant.now(), Instant.now().plusSeconds(10), 7);
-        when(gameService.getCurrentRoundSnapshot()).thenReturn(round);
+        when(gameService.getCurrentRoundSnapshot(GameService.DEFAULT_TABLE)).thenReturn(round);
 
         handler.afterConnectionEstablished(session);
 
@@ -61,7 +68,7 @@ class GameWebSocketHandlerTest {
         String payload = """
             {"type":"BET","nickname":"Joe","number":5,"amount":10}
         """;
-        when(gameService.placeBet(any())).thenReturn(PlaceBetResult.ACCEPTED);
+        when(gameService.placeBet(eq(GameService.DEFAULT_TABLE), any(), any())).thenReturn(PlaceBetResult.ACCEPTED);
         when(session.getId()).thenReturn("s1");
 
         handler.handleMessage(session, new TextMessage(payload));
@@ -75,7 +82,7 @@ class GameWebSocketHandlerTest {
         String payload = """
             {"type":"BET","nickname":"Joe","number":5,"amount":10}
         """;
-        when(gameService.placeBet(any())).thenReturn(PlaceBetResult.DUPLICATE);
+        when(gameService.placeBet(eq(GameService.DEFAULT_TABLE), any(), any())).thenReturn(PlaceBetResult.DUPLICATE);
 
         handler.handleMessage(session, new TextMessage(payload));
 
@@ -89,7 +96,7 @@ class GameWebSocketHandlerTest {
         String payload = """
             {"type":"BET","nickname":"Joe","number":5,"amount":10}
         """;
-        when(gameService.placeBet(any())).thenReturn(PlaceBetResult.CLOSED);
+        when(gameService.placeBet(eq(GameService.DEFAULT_TABLE), any(), any())).thenReturn(PlaceBetResult.CLOSED);
 
         handler.handleMessage(session, new TextMessage(payload));
 
@@ -103,7 +110,7 @@ class GameWebSocketHandlerTest {
         String payload = """
             {"type":"BET","nickname":"Joe","number":5,"amount":10}
         """;
-        when(gameService.placeBet(any())).thenReturn(PlaceBetResult.INVALID);
+        when(gameService.placeBet(eq(GameService.DEFAULT_TABLE), any(), any())).thenReturn(PlaceBetResult.INVALID);
 
         handler.handleMessage(session, new TextMessage(payload));
 
@@ -112,6 +119,68 @@ class GameWebSocketHandlerTest {
         );
     }
 
+    @Test
+    void shouldAnswerBatchWithOneFrame() throws Exception {
+        when(gameService.getMaxBatchSize()).thenReturn(10);
+        when(gameService.placeBets(eq(GameService.DEFAULT_TABLE), any())).thenReturn(List.of(PlaceBetResult.ACCEPTED, PlaceBetResult.INVALID));
+        when(session.getId()).thenReturn("s1");
+
+        handler.handleMessage(session, new TextMessage("""
+            {"type":"BET_BATCH","bets":[
+              {"nickname":"Joe","number":5,"amount":10},
+              {"nickname":"Ann","number":12,"amount":10}
+            ]}
+        """));
+
+        verify(session).sendMessage(
+                argThat(msg -> msg instanceof TextMessage tm
+                        && tm.getPayload().contains("BET_BATCH_RESULT")
+                        && tm.getPayload().contains("[\"ACCEPTED\",\"INVALID\"]"))
+        );
+    }
+
+    @Test
+    void shouldChargeEveryBatchedBetToItsPlayer() throws Exception {
+        PlayerRegistry players = new PlayerRegistry(1024);
+        players.acquire("Joe");
+        handler = new GameWebSocketHandler(gameService, new BroadcastFanout(0), players,
+                new BetRateLimiter(BetRateLimiter.Limit.NONE, BetRateLimiter.Limit.NONE,
+                        new BetRateLimiter.Limit(0.001, 1), 1024));
+        when(gameService.getMaxBatchSize()).thenReturn(10);
+        when(gameService.placeBets(eq(GameService.DEFAULT_TABLE), argThat(bets -> bets.size() == 2)))
+                .thenReturn(List.of(PlaceBetResult.ACCEPTED, PlaceBetResult.ACCEPTED));
+
+        handler.handleMessage(session, new TextMessage("""
+            {"type":"BET_BATCH","bets":[
+              {"nickname":"Joe","number":5,"amount":10},
+              {"nickname":"Joe","number":6,"amount":10},
+              {"nickname":"Ann","number":7,"amount":10}
+            ]}
+        """));
+
+        verify(session).sendMessage(
+                argThat(msg -> msg instanceof TextMessage tm
+                        && tm.getPayload().contains("[\"ACCEPTED\",\"RATE_LIMITED\",\"ACCEPTED\"]"))
+        );
+    }
+
+    @Test
+    void shouldRejectOversizedBatch() throws Exception {
+        when(gameService.getMaxBatchSize()).thenReturn(1);
+
+        handler.handleMessage(session, new TextMessage("""
+            {"type":"BET_BATCH","bets":[
+              {"nickname":"Joe","number":5,"amount":10},
+              {"nickname":"Ann","number":6,"amount":10}
+            ]}
+        """));
+
+        verify(session).sendMessage(
+                argThat(msg -> msg instanceof TextMessage tm && tm.getPayload().contains("batch must contain 1..1 bets"))
+        );
+        verify(gameService, never()).placeBets(any(), any());
+    }
+
     @Test
     void shouldSendValidationErrors() throws Exception {
         // missing nickname
@@ -147,11 +216,32 @@ class GameWebSocketHandlerTest {
         );
     }
 
+    @Test
+    void shouldAnswerFramesOverTheSessionLimitWithRateLimited() throws Exception {
+        handler = new GameWebSocketHandler(gameService, new BroadcastFanout(0), new PlayerRegistry(1024),
+                new BetRateLimiter(new BetRateLimiter.Limit(0.001, 2), BetRateLimiter.Limit.NONE,
+                        BetRateLimiter.Limit.NONE, 1024));
+        when(gameService.placeBet(eq(GameService.DEFAULT_TABLE), any(), any())).thenReturn(PlaceBetResult.DUPLICATE);
+        handler.afterConnectionEstablished(session);
+
+        for (int i = 0; i < 3; i++) {
+            handler.handleMessage(session, new TextMessage("""
+            {"type":"BET","nickname":"Joe","number":5,"amount":10}
+            """));
+        }
+
+        verify(gameService, times(2)).placeBet(any(), any(), any());
+        verify(session).sendMessage(
+                argThat(msg -> msg instanceof TextMessage tm && tm.getPayload().contains("\"RATE_LIMITED\""))
+        );
+        handler.afterConnectionClosed(session, CloseStatus.NORMAL);
+    }
+
     @Test
     void shouldSendWinAndLoss() throws Exception {
         when(session.isOpen()).thenReturn(true);
         when(session.getId()).thenReturn("s1");
-        when(gameService.placeBet(any())).thenReturn(PlaceBetResult.ACCEPTED);
+        when(gameService.placeBet(eq(GameService.DEFAULT_TABLE), any(), any())).thenReturn(PlaceBetResult.ACCEPTED);
 
         handler.handleMessage(session, new TextMessage("""
         {"type":"BET","nickname":"Joe","number":5,"amount":10}
@@ -159,8 +249,8 @@ class GameWebSocketHandlerTest {
         reset(session);
         when(session.isOpen()).thenReturn(true);
 
-        handler.onPlayerResult(1, "Joe", new BigDecimal("99.00"));
-        handler.onPlayerResult(1, "Joe", BigDecimal.ZERO);
+        handler.channel(GameService.DEFAULT_TABLE).onPlayerResult(1, "Joe", 9900);
+        handler.channel(GameService.DEFAULT_TABLE).onPlayerResult(1, "Joe", 0);
 
         ArgumentCaptor<TextMessage> captor = ArgumentCaptor.forClass(TextMessage.class);
         verify(session, atLeast(2)).sendMessage(captor.capture());
@@ -172,15 +262,59 @@ class GameWebSocketHandlerTest {
         long yourResultCount = payloads.stream().filter(p -> p.contains("\"YOUR_RESULT\"")).count();
         assertThat(yourResultCount).isEqualTo(2);
         assertThat(String.join("\n", payloads)).contains("\"result\":\"WIN\"");
+        assertThat(String.join("\n", payloads)).contains("\"payout\":99.00");
         assertThat(String.join("\n", payloads)).contains("\"result\":\"LOSE\"");
     }
 
+    @Test
+    void shouldSendLoseToEveryLoser() throws Exception {
+        when(session.isOpen()).thenReturn(true);
+        when(session.getId()).thenReturn("s1");
+        when(gameService.placeBet(eq(GameService.DEFAULT_TABLE), any(), any())).thenReturn(PlaceBetResult.ACCEPTED);
+
+        handler.handleMessage(session, new TextMessage("""
+        {"type":"BET","nickname":"Joe","number":5,"amount":10}
+        """));
+        reset(session);
+        when(session.isOpen()).thenReturn(true);
+
+        handler.channel(GameService.DEFAULT_TABLE).onPlayersLost(1, List.of("Joe", "Nobody"));
+
+        verify(session).sendMessage(
+                argThat(msg -> msg instanceof TextMessage tm
+                        && tm.getPayload().contains("\"YOUR_RESULT\"")
+                        && tm.getPayload().contains("\"result\":\"LOSE\""))
+        );
+    }
+
+    @Test
+    void shouldRouteBetsAndResultsToTheSessionsTable() throws Exception {
+        when(session.getAttributes()).thenReturn(new HashMap<>(Map.of(GameWebSocketHandler.TABLE_ATTRIBUTE, "vip")));
+        when(session.isOpen()).thenReturn(true);
+        when(session.getId()).thenReturn("s1");
+        when(gameService.placeBet(eq("vip"), any(), any())).thenReturn(PlaceBetResult.ACCEPTED);
+
+        handler.handleMessage(session, new TextMessage("""
+        {"type":"BET","nickname":"Joe","number":5,"amount":10}
+        """));
+        reset(session);
+        when(session.isOpen()).thenReturn(true);
+
+        handler.channel(GameService.DEFAULT_TABLE).onPlayerResult(1, "Joe", 9900);
+        verify(session, never()).sendMessage(any());
+
+        handler.channel("vip").onPlayerResult(1, "Joe", 9900);
+        verify(session).sendMessage(
+                argThat(msg -> msg instanceof TextMessage tm && tm.getPayload().contains("\"result\":\"WIN\""))
+        );
+    }
+
     @Test
     void shouldBroadcastRoundOpened() throws Exception {
         when(session.isOpen()).thenReturn(true);
 
         handler.afterConnectionEstablished(session);
-        handler.onRoundOpened(1L, 1000L);
+        handler.channel(GameService.DEFAULT_TABLE).onRoundOpened(1L, 1000L);
 
         verify(session, atLeastOnce()).sendMessage(
                 argThat(msg -> msg instanceof TextMessage tm &&
@@ -193,7 +327,7 @@ class GameWebSocketHandlerTest {
         when(session.isOpen()).thenReturn(true);
 
         handler.afterConnectionEstablished(session);
-        handler.onRoundSettled(1, 7);
+        handler.channel(GameService.DEFAULT_TABLE).onRoundSettled(1, 7);
 
         verify(session).sendMessage(
                 argThat(msg -> msg instanceof TextMessage tm && tm.getPayload().contains("ROUND_SETTLED"))
@@ -206,13 +340,26 @@ class GameWebSocketHandlerTest {
         handler.afterConnectionEstablished(session);
 
         List<WinnerInfo> winners = List.of(new WinnerInfo("Joe", BigDecimal.TEN));
-        handler.onWinnersAnnounced(1, winners);
+        handler.channel(GameService.DEFAULT_TABLE).onWinnersAnnounced(1, winners);
 
         verify(session).sendMessage(
                 argThat(msg -> msg instanceof TextMessage tm && tm.getPayload().contains("WINNERS"))
         );
     }
 
+    @Test
+    void shouldBroadcastPoolStats() throws Exception {
+        when(session.isOpen()).thenReturn(true);
+        handler.afterConnectionEstablished(session);
+
+        handler.channel(GameService.DEFAULT_TABLE).onPoolStats(1, new int[]{0, 0, 0, 0, 0, 0, 2, 0, 0, 0}, new long[]{0, 0, 0, 0, 0, 0, 1250, 0, 0, 0});
+
+        verify(session).sendMessage(argThat(msg -> msg instanceof TextMessage tm
+                && tm.getPayload().contains("\"type\":\"POOL_STATS\"")
+                && tm.getPayload().contains("\"counts\":[0,0,0,0,0,0,2,0,0,0]")
+                && tm.getPayload().contains("12.50")));
+    }
+
     @Test
     void shouldSendTransportError() throws Exception {
         handler.handleTransportError(session, new RuntimeException("boom"));
@@ -235,6 +382,35 @@ class GameWebSocketHandlerTest {
     }
 
 
+    @Test
+    void shouldSpeakBinaryToSessionsThatNegotiatedIt() throws Exception {
+        when(gameService.placeBet(eq(GameService.DEFAULT_TABLE), any(), any())).thenReturn(PlaceBetResult.ACCEPTED);
+        when(session.getId()).thenReturn("s1");
+        when(session.getAcceptedProtocol()).thenReturn(GameWebSocketHandler.BINARY_PROTOCOL);
+        byte[] bet = {BinaryCodec.BET, 5, (byte) 0xE8, 0x07, 3, 'J', 'o', 'e'};
+
+        handler.handleMessage(session, new BinaryMessage(bet));
+
+        verify(gameService).placeBet(eq(GameService.DEFAULT_TABLE),
+                argThat(b -> b.getNickname().equals("Joe") && b.getNumber() == 5 && b.getAmountCents() == 1000), isNull());
+        verify(session).sendMessage(argThat(msg -> msg instanceof BinaryMessage bm
+                && bm.getPayload().get() == BinaryCodec.BET_ACCEPTED));
+    }
+
+    @Test
+    void shouldAnswerMalformedBinaryFrameWithBadFrame() throws Exception {
+        when(session.getAcceptedProtocol()).thenReturn(GameWebSocketHandler.BINARY_PROTOCOL);
+
+        handler.handleMessage(session, new BinaryMessage(new byte[]{BinaryCodec.BET}));
+
+        verify(session).sendMessage(argThat(msg -> {
+            if (!(msg instanceof BinaryMessage bm)) return false;
+            ByteBuffer buf = bm.getPayload();
+            return buf.get() == BinaryCodec.ERROR && BinaryCodec.readString(buf).equals("BAD_FRAME");
+        }));
+        verifyNoInteractions(gameService);
+    }
+
     @Test
     void supportsPartialMessages_shouldReturnFalse() {
         assertThat(handler.supportsPartialMessages()).isFalse();
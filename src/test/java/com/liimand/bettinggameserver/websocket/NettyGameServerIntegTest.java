@@ -0,0 +1,79 @@
+package com.liimand.bettinggameserver.websocket;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+
+import java.net.URI;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+        "game.betting-window-seconds=1",
+        "game.auto-repeat=false",
+        "game.transport=both",
+        "game.transport.netty.port=0"
+})
+class NettyGameServerIntegTest {
+
+    @Autowired TestRestTemplate rest;
+
+    @Autowired NettyGameServer netty;
+
+    @Test
+    void shouldPlayRoundOverNettySocket() throws Exception {
+        BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+        WebSocketSession session = new StandardWebSocketClient()
+                .doHandshake(new AbstractWebSocketHandler() {
+                    @Override
+                    public void handleTextMessage(WebSocketSession s, TextMessage msg) {
+                        messages.offer(msg.getPayload());
+                    }
+                }, new WebSocketHttpHeaders(), URI.create("ws://localhost:" + netty.port() + "/ws/game"))
+                .get(5, TimeUnit.SECONDS);
+
+        rest.postForEntity("/api/rounds/start", null, String.class);
+        session.sendMessage(new TextMessage("""
+            {"type":"BET","nickname":"Nora","number":7,"amount":10.00}
+        """));
+
+        assertThat(receive(messages, "BET_ACCEPTED", "WINNERS", "YOUR_RESULT"))
+                .containsExactlyInAnyOrder("BET_ACCEPTED", "WINNERS", "YOUR_RESULT");
+        session.close();
+    }
+
+    @Test
+    void shouldRefuseUnknownTable() {
+        assertThatThrownBy(() -> new StandardWebSocketClient()
+                .doHandshake(new AbstractWebSocketHandler() {}, new WebSocketHttpHeaders(),
+                        URI.create("ws://localhost:" + netty.port() + "/ws/game/no%20such"))
+                .get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class);
+    }
+
+    private static Set<String> receive(BlockingQueue<String> messages, String... types) throws InterruptedException {
+        Set<String> seen = new HashSet<>();
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (seen.size() < types.length && System.nanoTime() < end) {
+            String m = messages.poll(100, TimeUnit.MILLISECONDS);
+            if (m == null) continue;
+            for (String type : types) if (m.contains("\"" + type + "\"")) seen.add(type);
+        }
+        return seen;
+    }
+}
@@ -0,0 +1,100 @@
+package com.liimand.bettinggameserver.websocket;
+
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OutboundSessionTest {
+
+    private final WebSocketSession delegate = mock(WebSocketSession.class);
+    private final OutboundStats stats = new OutboundStats();
+    private final List<String> delivered = new CopyOnWriteArrayList<>();
+    private final CountDownLatch stalled = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ExecutorService drain = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void releaseDrain() throws Exception {
+        release.countDown();
+        drain.shutdown();
+        drain.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void shouldDropOldestNonCriticalFrameWhenFull() throws Exception {
+        OutboundSession out = stalledSession(OutboundSession.OverflowPolicy.DROP_OLDEST);
+
+        out.sendCritical(frame("result"));
+        out.sendMessage(frame("a"));
+        out.sendMessage(frame("b"));
+
+        assertThat(out.queueDepth()).isEqualTo(2);
+        assertThat(stats.snapshot(List.of(out)).droppedFrames()).isEqualTo(1);
+        assertThat(out.isEvicted()).isFalse();
+
+        release.countDown();
+        Awaitility.await().atMost(Duration.ofSeconds(1)).until(() -> delivered.size() == 3);
+        assertThat(delivered).containsExactly("first", "result", "b");
+    }
+
+    @Test
+    void shouldCloseInsteadOfDroppingCriticalFrame() throws Exception {
+        OutboundSession out = stalledSession(OutboundSession.OverflowPolicy.DROP_OLDEST);
+
+        out.sendCritical(frame("result-1"));
+        out.sendCritical(frame("result-2"));
+        out.sendCritical(frame("result-3"));
+
+        assertThat(out.isEvicted()).isTrue();
+        assertThat(stats.snapshot(List.of(out)).evictedSessions()).isEqualTo(1);
+        verify(delegate).close(OutboundSession.SLOW_CONSUMER);
+    }
+
+    @Test
+    void shouldCloseSlowConsumerWithClosePolicy() throws Exception {
+        OutboundSession out = stalledSession(OutboundSession.OverflowPolicy.CLOSE);
+
+        out.sendMessage(frame("a"));
+        out.sendMessage(frame("b"));
+        out.sendMessage(frame("c"));
+
+        assertThat(out.isEvicted()).isTrue();
+        verify(delegate).close(OutboundSession.SLOW_CONSUMER);
+    }
+
+    private OutboundSession stalledSession(OutboundSession.OverflowPolicy policy) throws Exception {
+        doAnswer(inv -> {
+            TextMessage m = inv.getArgument(0);
+            if (m.getPayload().equals("first")) {
+                stalled.countDown();
+                release.await();
+            }
+            delivered.add(m.getPayload());
+            return null;
+        }).when(delegate).sendMessage(any());
+
+        OutboundSession out = new OutboundSession(delegate, 2, policy, stats, drain);
+        // returns right away, the drain task is the one stuck in the write
+        out.sendMessage(frame("first"));
+        stalled.await();
+        return out;
+    }
+
+    private static TextMessage frame(String payload) {
+        return new TextMessage(payload);
+    }
+}
@@ -0,0 +1,80 @@
+package com.liimand.bettinggameserver.websocket;
+
+import com.liimand.bettinggameserver.websocket.SessionRegistry.Connection;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.HashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SessionRegistryTest {
+
+    private final SessionRegistry registry = new SessionRegistry();
+
+    @Test
+    void shouldFindSessionsThroughTheirSlotAttribute() {
+        WebSocketSession a = session(), b = session();
+        Connection ca = registry.add(new Connection(a, null, -1));
+        registry.add(new Connection(b, null, -1));
+
+        assertThat(a.getAttributes()).containsEntry(SessionRegistry.SLOT_ATTRIBUTE, 0);
+        assertThat(b.getAttributes()).containsEntry(SessionRegistry.SLOT_ATTRIBUTE, 1);
+        assertThat(registry.get(a)).isSameAs(ca);
+        assertThat(registry.get(session())).isNull();
+
+        assertThat(registry.remove(a)).isSameAs(ca);
+        assertThat(registry.remove(a)).isNull();
+        assertThat(registry.get(a)).isNull();
+        assertThat(registry.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReuseFreedSlots() {
+        WebSocketSession a = session(), b = session(), c = session();
+        registry.add(new Connection(a, null, -1));
+        registry.add(new Connection(b, null, -1));
+        registry.remove(a);
+
+        registry.add(new Connection(c, null, -1));
+
+        assertThat(c.getAttributes()).containsEntry(SessionRegistry.SLOT_ATTRIBUTE, 0);
+        assertThat(registry.get(b).session).isSameAs(b);
+        assertThat(registry.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotMistakeAStaleSlotForAnotherSession() {
+        WebSocketSession a = session(), b = session();
+        registry.add(new Connection(a, null, -1));
+        a.getAttributes().put(SessionRegistry.SLOT_ATTRIBUTE, 0);
+        b.getAttributes().put(SessionRegistry.SLOT_ATTRIBUTE, 0);
+
+        assertThat(registry.get(b)).isNull();
+        assertThat(registry.remove(b)).isNull();
+        assertThat(registry.get(a)).isNotNull();
+    }
+
+    @Test
+    void shouldBindEachPlayerIdOnceInBindOrder() {
+        SessionRegistry.BoundPlayers bound = new Connection(session(), null, -1).players;
+
+        for (int id = 0; id < 1_000; id++) assertThat(bound.add(id * 7)).isTrue();
+        assertThat(bound.add(7)).isFalse();
+
+        assertThat(bound.size()).isEqualTo(1_000);
+        assertThat(bound.get(0)).isZero();
+        assertThat(bound.get(999)).isEqualTo(6_993);
+        assertThat(bound.contains(6_993)).isTrue();
+        assertThat(bound.contains(8)).isFalse();
+        assertThat(bound.contains(-1)).isFalse();
+    }
+
+    private static WebSocketSession session() {
+        WebSocketSession s = mock(WebSocketSession.class);
+        when(s.getAttributes()).thenReturn(new HashMap<>());
+        return s;
+    }
+}